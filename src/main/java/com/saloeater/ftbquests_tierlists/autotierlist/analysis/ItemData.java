@@ -11,8 +11,10 @@ public class ItemData {
 
     /**
      * Weapon data with attack damage and attack speed.
+     * tagEntryIndex is the first matching Armageddon tag entry, or -1 if none matches.
      */
-    public record WeaponData(ResourceLocation id, ItemStack stack, double damage, double attackSpeed) implements Comparable<WeaponData> {
+    public record WeaponData(ResourceLocation id, ItemStack stack, double damage, double attackSpeed,
+                             int tagEntryIndex) implements Comparable<WeaponData> {
 
         /**
          * Calculate DPS (damage per second) using the formula: damage * attackSpeed
@@ -30,12 +32,14 @@ public class ItemData {
 
     /**
      * Armor data with armor value and toughness.
+     * tagEntryIndex is the first matching Armageddon tag entry, or -1 if none matches.
      */
     public record ArmorData(
         ResourceLocation id,
         ItemStack stack,
         double armor,
-        double toughness
+        double toughness,
+        int tagEntryIndex
     ) implements Comparable<ArmorData> {
 
         /**
@@ -0,0 +1,82 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.analysis;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Generation-scoped mapping between item ids and dense int ids.
+ * An item's dense id is its position in the list the dictionary was built from,
+ * so per-item state (tier, score, column, depth) can live in plain arrays.
+ */
+public class ItemIdDictionary {
+    public static final int NO_ID = -1;
+
+    private final List<ResourceLocation> items;
+    private final Object2IntOpenHashMap<ResourceLocation> ids;
+    private int[] nameRanks;
+
+    private ItemIdDictionary(List<ResourceLocation> items) {
+        this.items = items;
+        this.ids = new Object2IntOpenHashMap<>(items.size());
+        this.ids.defaultReturnValue(NO_ID);
+        for (int i = 0; i < items.size(); i++) {
+            ids.putIfAbsent(items.get(i), i);
+        }
+    }
+
+    /**
+     * Build a dictionary where each item's dense id is its index in the list.
+     */
+    public static <T> ItemIdDictionary of(List<T> items, Function<T, ResourceLocation> getItemId) {
+        List<ResourceLocation> itemIds = new ArrayList<>(items.size());
+        for (T item : items) {
+            itemIds.add(getItemId.apply(item));
+        }
+        return new ItemIdDictionary(itemIds);
+    }
+
+    /**
+     * Get the dense id of an item, or NO_ID if it is not part of this generation.
+     */
+    public int getId(ResourceLocation itemId) {
+        return ids.getInt(itemId);
+    }
+
+    public ResourceLocation getItem(int id) {
+        return items.get(id);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Rank of each dense id when items are ordered by their id string.
+     * Used as a deterministic tie-breaker without formatting strings in comparators.
+     */
+    public int[] getNameRanks() {
+        if (nameRanks == null) {
+            int[] order = new int[items.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            String[] names = new String[items.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = items.get(i).toString();
+            }
+            IntArrays.quickSort(order, (a, b) -> names[a].compareTo(names[b]));
+
+            int[] ranks = new int[order.length];
+            for (int rank = 0; rank < order.length; rank++) {
+                ranks[order[rank]] = rank;
+            }
+            nameRanks = ranks;
+        }
+        return nameRanks;
+    }
+}
@@ -2,8 +2,9 @@ package com.saloeater.ftbquests_tierlists.autotierlist.analysis;
 
 import com.saloeater.ftbquests_tierlists.Tierlists;
 import com.saloeater.ftbquests_tierlists.autotierlist.config.ItemFilter;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.TagEntryIndex;
 import com.google.common.collect.Multimap;
-import com.mojang.logging.LogUtils;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.ai.attributes.Attribute;
@@ -11,115 +12,277 @@ import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
 import net.minecraftforge.registries.ForgeRegistries;
-import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Scans all registered items and extracts weapon and armor data.
+ * Each item is visited once per scan; weapon and armor collectors share the visit.
  */
 public class ItemScanner {
     // Only scan chestplates for armor tierlist to avoid duplicates
     private static final EquipmentSlot ARMOR_SLOT = EquipmentSlot.CHEST;
 
+    // Registry entries handled by one fork-join leaf task
+    private static final int PARALLEL_BATCH_SIZE = 256;
+
+    private static final ItemResult SKIPPED = new ItemResult(null, null);
+    private static final ItemResult FAILED = new ItemResult(null, null);
+
     private final ItemFilter filter;
+    private final TagEntryIndex tagEntryIndex;
+    private final boolean parallel;
 
-    public ItemScanner(ItemFilter filter) {
+    public ItemScanner(ItemFilter filter, TagEntryIndex tagEntryIndex, boolean parallel) {
         this.filter = filter;
+        this.tagEntryIndex = tagEntryIndex;
+        this.parallel = parallel;
     }
 
     /**
-     * Scan all items and find weapons based on filter criteria.
+     * Scan all items once and collect both weapons and armor.
+     * In parallel mode attribute extraction and filter checks run on a fork-join pool;
+     * results are merged in registry order so the output matches a sequential scan.
+     *
+     * @param collectWeapons Whether to read mainhand modifiers and collect weapons
+     * @param collectArmor Whether to read chest modifiers and collect armor
+     * @return Snapshot shared by every generator and mode
      */
-    public List<ItemData.WeaponData> scanWeapons() {
-        List<ItemData.WeaponData> weapons = new ArrayList<>();
+    public ScanResult scan(boolean collectWeapons, boolean collectArmor) {
+        boolean fullScan = (collectWeapons && filter.acceptsUnlistedWeapons())
+            || (collectArmor && filter.acceptsUnlistedArmor());
+        List<RegistryEntry> entries = fullScan
+            ? snapshotRegistry()
+            : snapshotListedItems(collectWeapons, collectArmor);
+        ItemResult[] results = new ItemResult[entries.size()];
 
-        for (Item item : ForgeRegistries.ITEMS) {
-            try {
-                ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+        if (parallel) {
+            scanParallel(entries, results, collectWeapons, collectArmor);
 
-                // Skip air and invalid items
-                if (itemId == null || itemId.equals(new ResourceLocation("minecraft:air"))) {
-                    continue;
+            // Retry anything a worker could not handle on the calling (server) thread
+            int retried = 0;
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == FAILED) {
+                    results[i] = scanEntrySafely(entries.get(i), collectWeapons, collectArmor);
+                    retried++;
                 }
+            }
+            if (retried > 0) {
+                Tierlists.LOGGER.info("Retried {} items serially after parallel scan failures", retried);
+            }
+        } else {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = scanEntrySafely(entries.get(i), collectWeapons, collectArmor);
+            }
+        }
 
-                ItemStack stack = new ItemStack(item);
-                if (stack.isEmpty()) {
-                    continue;
-                }
+        // Merge in registry order
+        List<ItemData.WeaponData> weapons = new ArrayList<>();
+        List<ItemData.ArmorData> armors = new ArrayList<>();
+        for (ItemResult result : results) {
+            if (result.weapon() != null) {
+                weapons.add(result.weapon());
+            }
+            if (result.armor() != null) {
+                armors.add(result.armor());
+            }
+        }
 
-                // Get attack damage and attack speed attributes for mainhand
-                Multimap<Attribute, AttributeModifier> modifiers = stack.getAttributeModifiers(EquipmentSlot.MAINHAND);
-                double damage = getAttributeValue(modifiers, Attributes.ATTACK_DAMAGE);
-                double attackSpeed = getAttributeValue(modifiers, Attributes.ATTACK_SPEED);
-
-                // Check if item should be included based on filter
-                if (filter.isWeapon(itemId, stack, damage > 0)) {
-                    attackSpeed = Attributes.ATTACK_SPEED.getDefaultValue() + attackSpeed;
-                    damage = Attributes.ATTACK_DAMAGE.getDefaultValue() + damage;
-                    weapons.add(new ItemData.WeaponData(itemId, stack, damage, attackSpeed));
-                    Tierlists.LOGGER.debug("Found weapon: {} (damage: {}, attack speed: {}, DPS: {})",
-                               itemId, damage, attackSpeed, damage * attackSpeed);
-                }
-            } catch (Exception e) {
-                Tierlists.LOGGER.warn("Error scanning item {}: {}", item, e.getMessage());
+        Tierlists.LOGGER.info("Scanned {} weapons and {} armor pieces", weapons.size(), armors.size());
+        return new ScanResult(weapons, armors);
+    }
+
+    /**
+     * Copy the registry into an ordered list so workers never iterate the registry itself.
+     */
+    private List<RegistryEntry> snapshotRegistry() {
+        List<RegistryEntry> entries = new ArrayList<>();
+        for (Item item : ForgeRegistries.ITEMS) {
+            // Skip air and invalid items
+            if (item == Items.AIR) {
+                continue;
+            }
+            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+            if (itemId != null) {
+                entries.add(new RegistryEntry(itemId, item));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Snapshot only the configured tag members and manually listed items, in registry order.
+     * Used when attribute detection cannot accept anything else, so the full registry walk is skipped.
+     */
+    private List<RegistryEntry> snapshotListedItems(boolean collectWeapons, boolean collectArmor) {
+        List<Item> candidates = new ArrayList<>(filter.collectListedItems(collectWeapons, collectArmor));
+        candidates.sort(Comparator.comparingInt(BuiltInRegistries.ITEM::getId));
+
+        List<RegistryEntry> entries = new ArrayList<>(candidates.size());
+        for (Item item : candidates) {
+            if (item == Items.AIR) {
+                continue;
+            }
+            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+            if (itemId != null) {
+                entries.add(new RegistryEntry(itemId, item));
             }
         }
 
-        Tierlists.LOGGER.info("Scanned {} weapons", weapons.size());
-        return weapons;
+        Tierlists.LOGGER.info("Tag-driven scan: visiting {} listed items instead of the full registry", entries.size());
+        return entries;
+    }
+
+    private void scanParallel(List<RegistryEntry> entries, ItemResult[] results,
+                              boolean collectWeapons, boolean collectArmor) {
+        ForkJoinPool pool = WorkerPool.create("Auto-Tierlist-Scan-");
+
+        try {
+            pool.invoke(new ScanTask(entries, results, 0, entries.size(), collectWeapons, collectArmor));
+        } finally {
+            pool.shutdown();
+        }
     }
 
     /**
-     * Scan all items and find armor based on filter criteria.
-     * Only scans chestplates to avoid duplicate entries.
+     * Scan one entry on the current thread, logging failures like a sequential scan.
      */
-    public List<ItemData.ArmorData> scanArmor() {
-        List<ItemData.ArmorData> armors = new ArrayList<>();
+    private ItemResult scanEntrySafely(RegistryEntry entry, boolean collectWeapons, boolean collectArmor) {
+        try {
+            return scanEntry(entry, collectWeapons, collectArmor);
+        } catch (RuntimeException | LinkageError | AssertionError e) {
+            Tierlists.LOGGER.warn("Error scanning item {}: {}", entry.item(), e.toString());
+            return SKIPPED;
+        }
+    }
 
-        for (Item item : ForgeRegistries.ITEMS) {
-            try {
-                ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+    private ItemResult scanEntry(RegistryEntry entry, boolean collectWeapons, boolean collectArmor) {
+        ItemStack stack = new ItemStack(entry.item());
+        if (stack.isEmpty()) {
+            return SKIPPED;
+        }
 
-                // Skip air and invalid items
-                if (itemId == null || itemId.equals(new ResourceLocation("minecraft:air"))) {
-                    continue;
-                }
+        ItemData.WeaponData weapon = collectWeapons ? readWeapon(entry.id(), stack) : null;
+        ItemData.ArmorData armor = collectArmor ? readArmor(entry.id(), stack) : null;
+        if (weapon == null && armor == null) {
+            return SKIPPED;
+        }
+        return new ItemResult(weapon, armor);
+    }
 
-                ItemStack stack = new ItemStack(item);
-                if (stack.isEmpty()) {
-                    continue;
-                }
+    /**
+     * Read mainhand modifiers and return weapon data if the filter accepts the item.
+     */
+    private ItemData.WeaponData readWeapon(ResourceLocation itemId, ItemStack stack) {
+        // Get attack damage and attack speed attributes for mainhand
+        Multimap<Attribute, AttributeModifier> modifiers = stack.getAttributeModifiers(EquipmentSlot.MAINHAND);
+        double damage = getAttributeValue(modifiers, Attributes.ATTACK_DAMAGE);
+        double attackSpeed = getAttributeValue(modifiers, Attributes.ATTACK_SPEED);
 
-                // Get armor attributes for chest slot only
-                Multimap<Attribute, AttributeModifier> modifiers = stack.getAttributeModifiers(ARMOR_SLOT);
-                double armor = getAttributeValue(modifiers, Attributes.ARMOR);
-                double toughness = getAttributeValue(modifiers, Attributes.ARMOR_TOUGHNESS);
-
-                // Check if item should be included based on filter
-                if (filter.isArmor(itemId, stack, armor > 0)) {
-                    // If armor is 0 but item passed filter (tag/manual list), still need values
-                    armors.add(new ItemData.ArmorData(itemId, stack, armor, toughness));
-                    Tierlists.LOGGER.debug("Found armor: {} (armor: {}, toughness: {})",
-                               itemId, armor, toughness);
-                }
-            } catch (Exception e) {
-                Tierlists.LOGGER.warn("Error scanning item {}: {}", item, e.getMessage());
-            }
+        // Check if item should be included based on filter
+        if (!filter.isWeapon(itemId, stack, damage > 0)) {
+            return null;
         }
 
-        Tierlists.LOGGER.info("Scanned {} armor pieces", armors.size());
-        return armors;
+        attackSpeed = Attributes.ATTACK_SPEED.getDefaultValue() + attackSpeed;
+        damage = Attributes.ATTACK_DAMAGE.getDefaultValue() + damage;
+        Tierlists.LOGGER.debug("Found weapon: {} (damage: {}, attack speed: {}, DPS: {})",
+                   itemId, damage, attackSpeed, damage * attackSpeed);
+        return new ItemData.WeaponData(itemId, stack, damage, attackSpeed, tagEntryIndex.resolve(stack));
+    }
+
+    /**
+     * Read chest modifiers and return armor data if the filter accepts the item.
+     * Only chestplates are considered to avoid duplicate entries.
+     */
+    private ItemData.ArmorData readArmor(ResourceLocation itemId, ItemStack stack) {
+        // Get armor attributes for chest slot only
+        Multimap<Attribute, AttributeModifier> modifiers = stack.getAttributeModifiers(ARMOR_SLOT);
+        double armor = getAttributeValue(modifiers, Attributes.ARMOR);
+        double toughness = getAttributeValue(modifiers, Attributes.ARMOR_TOUGHNESS);
+
+        // Check if item should be included based on filter
+        if (!filter.isArmor(itemId, stack, armor > 0)) {
+            return null;
+        }
+
+        // If armor is 0 but item passed filter (tag/manual list), still need values
+        Tierlists.LOGGER.debug("Found armor: {} (armor: {}, toughness: {})",
+                   itemId, armor, toughness);
+        return new ItemData.ArmorData(itemId, stack, armor, toughness, tagEntryIndex.resolve(stack));
     }
 
     /**
      * Extract the total value of an attribute from a multimap of modifiers.
      */
     private double getAttributeValue(Multimap<Attribute, AttributeModifier> modifiers, Attribute attribute) {
-        return modifiers.get(attribute).stream()
-            .mapToDouble(AttributeModifier::getAmount)
-            .sum();
+        double total = 0;
+        for (AttributeModifier modifier : modifiers.get(attribute)) {
+            total += modifier.getAmount();
+        }
+        return total;
     }
+
+    /**
+     * Fork-join task that scans a contiguous range of the registry snapshot.
+     * Each slot of the result array is written by exactly one leaf.
+     */
+    private class ScanTask extends RecursiveAction {
+        private final List<RegistryEntry> entries;
+        private final ItemResult[] results;
+        private final int from;
+        private final int to;
+        private final boolean collectWeapons;
+        private final boolean collectArmor;
+
+        ScanTask(List<RegistryEntry> entries, ItemResult[] results, int from, int to,
+                 boolean collectWeapons, boolean collectArmor) {
+            this.entries = entries;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.collectWeapons = collectWeapons;
+            this.collectArmor = collectArmor;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        results[i] = scanEntry(entries.get(i), collectWeapons, collectArmor);
+                    } catch (RuntimeException | LinkageError | AssertionError e) {
+                        // Left for the serial retry on the server thread; class loading and
+                        // static-init errors are the typical off-thread failures, so catch those too
+                        results[i] = FAILED;
+                    }
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                new ScanTask(entries, results, from, mid, collectWeapons, collectArmor),
+                new ScanTask(entries, results, mid, to, collectWeapons, collectArmor)
+            );
+        }
+    }
+
+    private record RegistryEntry(ResourceLocation id, Item item) {}
+
+    /**
+     * Scan outcome for one registry entry; either side is null when the item was not accepted.
+     */
+    private record ItemResult(ItemData.WeaponData weapon, ItemData.ArmorData armor) {}
+
+    /**
+     * Result of a single registry scan, reused by every generator and mode.
+     */
+    public record ScanResult(List<ItemData.WeaponData> weapons, List<ItemData.ArmorData> armor) {}
 }
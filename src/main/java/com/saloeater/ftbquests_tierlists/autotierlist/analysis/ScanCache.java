@@ -0,0 +1,224 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.analysis;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.saloeater.ftbquests_tierlists.Tierlists;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.TagEntryIndex;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.storage.LevelResource;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.forgespi.language.IModInfo;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persists scanned weapon and armor values in the world folder between restarts.
+ * The file is keyed by a fingerprint of the mod list, the selected datapacks, the resolved
+ * members of every configured tag and the scan-related config values; any mismatch means
+ * the caller rescans and rewrites it.
+ */
+public class ScanCache {
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_NAME = "ftbquests_tierlists_scan_cache.json";
+
+    private final Path path;
+
+    public ScanCache(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Cache file for the server's current world.
+     */
+    public static ScanCache forServer(MinecraftServer server) {
+        return new ScanCache(server.getWorldPath(LevelResource.ROOT).resolve(FILE_NAME));
+    }
+
+    /**
+     * Build the cache key from everything that can change the scan result.
+     *
+     * @param server The Minecraft server (for the selected datapacks)
+     * @param settings The generation settings the scan runs under
+     * @param collectWeapons Whether weapons are being collected
+     * @param collectArmor Whether armor is being collected
+     * @return Hex-encoded SHA-256 fingerprint
+     */
+    public static String fingerprint(MinecraftServer server, GenerationSettings settings,
+                                     boolean collectWeapons, boolean collectArmor) {
+        StringBuilder key = new StringBuilder();
+        key.append("format=").append(FORMAT_VERSION).append('\n');
+
+        List<IModInfo> mods = new ArrayList<>(ModList.get().getMods());
+        mods.sort(Comparator.comparing(IModInfo::getModId));
+        for (IModInfo mod : mods) {
+            key.append("mod=").append(mod.getModId()).append('@').append(mod.getVersion()).append('\n');
+        }
+
+        for (String packId : server.getPackRepository().getSelectedIds()) {
+            key.append("pack=").append(packId).append('\n');
+        }
+
+        // Tag contents can change without any pack id changing (world datapacks, KubeJS),
+        // so hash the members the scan would actually see
+        appendTagMembers(key, "weaponTag", settings.getItemFilter().getWeaponTags());
+        appendTagMembers(key, "armorTag", settings.getItemFilter().getArmorTags());
+        TagEntryIndex tagEntryIndex = settings.getTagEntryIndex();
+        for (int i = 0; i < tagEntryIndex.size(); i++) {
+            appendTagMembers(key, "entry" + i + "Tag", tagEntryIndex.getTagKeys(i));
+        }
+
+        key.append("weapons=").append(collectWeapons).append('\n');
+        key.append("armor=").append(collectArmor).append('\n');
+        key.append(settings.getScanConfigKey());
+
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Append each tag with its current member ids, both sorted so the key is independent of set order.
+     */
+    private static void appendTagMembers(StringBuilder key, String label, Collection<TagKey<Item>> tags) {
+        List<TagKey<Item>> sortedTags = new ArrayList<>(tags);
+        sortedTags.sort(Comparator.comparing(TagKey::location));
+        for (TagKey<Item> tag : sortedTags) {
+            List<String> members = new ArrayList<>();
+            for (Holder<Item> holder : BuiltInRegistries.ITEM.getTagOrEmpty(tag)) {
+                members.add(BuiltInRegistries.ITEM.getKey(holder.value()).toString());
+            }
+            members.sort(null);
+            key.append(label).append('=').append(tag.location()).append(':').append(String.join(",", members)).append('\n');
+        }
+    }
+
+    /**
+     * Load the cached scan if the file exists and matches the fingerprint.
+     *
+     * @param fingerprint The current fingerprint
+     * @return The cached scan, or empty on a miss or unreadable file
+     */
+    public Optional<ItemScanner.ScanResult> load(String fingerprint) {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            if (root.get("version").getAsInt() != FORMAT_VERSION
+                || !fingerprint.equals(root.get("fingerprint").getAsString())) {
+                Tierlists.LOGGER.info("Scan cache is stale, rescanning");
+                return Optional.empty();
+            }
+
+            List<ItemData.WeaponData> weapons = new ArrayList<>();
+            for (JsonElement element : root.getAsJsonArray("weapons")) {
+                JsonObject entry = element.getAsJsonObject();
+                ResourceLocation id = new ResourceLocation(entry.get("id").getAsString());
+                ItemStack stack = createStack(id);
+                if (stack == null) {
+                    return Optional.empty();
+                }
+                weapons.add(new ItemData.WeaponData(id, stack,
+                    entry.get("damage").getAsDouble(),
+                    entry.get("speed").getAsDouble(),
+                    entry.get("tagEntryIndex").getAsInt()));
+            }
+
+            List<ItemData.ArmorData> armors = new ArrayList<>();
+            for (JsonElement element : root.getAsJsonArray("armor")) {
+                JsonObject entry = element.getAsJsonObject();
+                ResourceLocation id = new ResourceLocation(entry.get("id").getAsString());
+                ItemStack stack = createStack(id);
+                if (stack == null) {
+                    return Optional.empty();
+                }
+                armors.add(new ItemData.ArmorData(id, stack,
+                    entry.get("armor").getAsDouble(),
+                    entry.get("toughness").getAsDouble(),
+                    entry.get("tagEntryIndex").getAsInt()));
+            }
+
+            Tierlists.LOGGER.info("Loaded {} weapons and {} armor pieces from scan cache", weapons.size(), armors.size());
+            return Optional.of(new ItemScanner.ScanResult(weapons, armors));
+        } catch (Exception e) {
+            Tierlists.LOGGER.warn("Failed to read scan cache {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Write a fresh scan to the cache file, replacing any previous content.
+     *
+     * @param fingerprint The fingerprint the scan was made under
+     * @param result The scan to store
+     */
+    public void save(String fingerprint, ItemScanner.ScanResult result) {
+        JsonObject root = new JsonObject();
+        root.addProperty("version", FORMAT_VERSION);
+        root.addProperty("fingerprint", fingerprint);
+
+        JsonArray weapons = new JsonArray();
+        for (ItemData.WeaponData weapon : result.weapons()) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("id", weapon.id().toString());
+            entry.addProperty("damage", weapon.damage());
+            entry.addProperty("speed", weapon.attackSpeed());
+            entry.addProperty("tagEntryIndex", weapon.tagEntryIndex());
+            weapons.add(entry);
+        }
+        root.add("weapons", weapons);
+
+        JsonArray armors = new JsonArray();
+        for (ItemData.ArmorData armor : result.armor()) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("id", armor.id().toString());
+            entry.addProperty("armor", armor.armor());
+            entry.addProperty("toughness", armor.toughness());
+            entry.addProperty("tagEntryIndex", armor.tagEntryIndex());
+            armors.add(entry);
+        }
+        root.add("armor", armors);
+
+        try {
+            Files.createDirectories(path.getParent());
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writer.write(root.toString());
+            }
+            Tierlists.LOGGER.info("Wrote scan cache to {}", path);
+        } catch (Exception e) {
+            Tierlists.LOGGER.warn("Failed to write scan cache {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Recreate the display stack for a cached item, or null if the item no longer exists.
+     */
+    private static ItemStack createStack(ResourceLocation id) {
+        Item item = ForgeRegistries.ITEMS.getValue(id);
+        if (item == null || item == Items.AIR) {
+            Tierlists.LOGGER.info("Cached item {} is missing from the registry, rescanning", id);
+            return null;
+        }
+        return new ItemStack(item);
+    }
+}
@@ -24,11 +24,13 @@ public class TierCalculator {
     /**
      * Assign weapons to tiers based on their DPS (damage * attack speed).
      * Tier formula: tier = floor(DPS / tierMultiplier)
+     * Each item's dense id is its index in the weapons list.
      */
     public Map<Integer, List<TieredItem<ItemData.WeaponData>>> assignWeaponTiers(List<ItemData.WeaponData> weapons) {
         Map<Integer, List<TieredItem<ItemData.WeaponData>>> tierMap = new HashMap<>();
 
-        for (ItemData.WeaponData weapon : weapons) {
+        for (int id = 0; id < weapons.size(); id++) {
+            ItemData.WeaponData weapon = weapons.get(id);
             double dps = weapon.getDPS();
 
             // Check for manual override first
@@ -39,7 +41,7 @@ public class TierCalculator {
             int row = calculateRowInTier(dps, tier);
 
             tierMap.computeIfAbsent(tier, k -> new ArrayList<>())
-                .add(new TieredItem<>(weapon, tier, row));
+                .add(new TieredItem<>(weapon, id, tier, row));
         }
 
         // Sort each tier's items by row (and then by DPS within the row)
@@ -56,11 +58,13 @@ public class TierCalculator {
      * Assign armor to tiers based on their armor score.
      * Score formula: armor * (toughness + 8) / 5
      * Tier formula: tier = floor(score / tierMultiplier)
+     * Each item's dense id is its index in the armors list.
      */
     public Map<Integer, List<TieredItem<ItemData.ArmorData>>> assignArmorTiers(List<ItemData.ArmorData> armors) {
         Map<Integer, List<TieredItem<ItemData.ArmorData>>> tierMap = new HashMap<>();
 
-        for (ItemData.ArmorData armor : armors) {
+        for (int id = 0; id < armors.size(); id++) {
+            ItemData.ArmorData armor = armors.get(id);
             // Check for manual override first
             int tier = overrideManager.getArmorOverride(armor.id())
                 .orElseGet(() -> {
@@ -72,7 +76,7 @@ public class TierCalculator {
             int row = calculateRowInTier(armor.getScore(), tier);
 
             tierMap.computeIfAbsent(tier, k -> new ArrayList<>())
-                .add(new TieredItem<>(armor, tier, row));
+                .add(new TieredItem<>(armor, id, tier, row));
         }
 
         // Sort each tier's items by row (and then by score within the row)
@@ -120,7 +124,7 @@ public class TierCalculator {
     }
 
     /**
-     * Container class for an item with its tier and row assignment.
+     * Container class for an item with its dense id, tier and row assignment.
      */
-    public record TieredItem<T>(T data, int tier, int row) {}
+    public record TieredItem<T>(T data, int id, int tier, int row) {}
 }
@@ -0,0 +1,29 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.analysis;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Fork-join pools for work that calls into modded item and recipe code off the server thread.
+ * Used only when parallelScan is enabled; callers retry anything that fails on a worker serially.
+ */
+public final class WorkerPool {
+    private WorkerPool() {
+    }
+
+    /**
+     * Create a pool with one worker per core. The caller shuts it down when done.
+     *
+     * @param namePrefix Worker thread name prefix, followed by the pool index
+     */
+    public static ForkJoinPool create(String namePrefix) {
+        // Workers inherit the mod class loader so modded code resolves the same way as on the server thread
+        ClassLoader classLoader = WorkerPool.class.getClassLoader();
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setContextClassLoader(classLoader);
+            thread.setName(namePrefix + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
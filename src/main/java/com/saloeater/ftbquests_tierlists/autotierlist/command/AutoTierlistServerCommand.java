@@ -132,13 +132,9 @@ public class AutoTierlistServerCommand {
                     java.nio.file.Path outputPath = java.nio.file.Paths.get("excluded_weapons.txt");
                     java.util.List<String> lines = new java.util.ArrayList<>();
 
-                    // Create item filter
+                    // Use the same compiled item filter as generation
                     com.saloeater.ftbquests_tierlists.autotierlist.config.ItemFilter filter =
-                        new com.saloeater.ftbquests_tierlists.autotierlist.config.ItemFilter(
-                            com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig.USE_ATTRIBUTE_DETECTION.get());
-                    filter.loadSkippedItems(com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig.SKIPPED_ITEMS.get());
-                    filter.loadWeaponTags(com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig.WEAPON_TAGS.get());
-                    filter.loadWeaponItems(com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig.WEAPON_ITEMS.get());
+                        com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings.get().getItemFilter();
 
                     // Collect excluded weapons
                     java.util.Map<String, java.util.List<ExcludedWeaponInfo>> weaponsByMod = new java.util.TreeMap<>();
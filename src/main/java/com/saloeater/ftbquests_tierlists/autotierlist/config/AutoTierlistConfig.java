@@ -8,7 +8,9 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraftforge.common.ForgeConfigSpec;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.config.ModConfigEvent;
 import org.slf4j.Logger;
 
 import java.io.InputStream;
@@ -50,7 +52,12 @@ public class AutoTierlistConfig {
     public static final ForgeConfigSpec.ConfigValue<List<? extends String>> WEAPON_ITEMS;
     public static final ForgeConfigSpec.ConfigValue<List<? extends String>> ARMOR_ITEMS;
     public static final ForgeConfigSpec.BooleanValue USE_ATTRIBUTE_DETECTION;
+    public static final ForgeConfigSpec.BooleanValue USE_SCAN_CACHE;
+    public static final ForgeConfigSpec.BooleanValue PARALLEL_SCAN;
     public static final ForgeConfigSpec.ConfigValue<List<? extends String>> SKIPPED_EMI_CATEGORIES;
+    public static final ForgeConfigSpec.BooleanValue TAG_INGREDIENT_NODES;
+    public static final ForgeConfigSpec.IntValue RECIPE_HOP_LIMIT;
+    public static final ForgeConfigSpec.BooleanValue REDUCE_QUEST_DEPENDENCIES;
     public static final ForgeConfigSpec.ConfigValue<List<? extends String>> SKIPPED_ITEMS;
     public static final ForgeConfigSpec.ConfigValue<List<? extends List<String>>> ARMAGEDDON_TAGS;
     public static final ForgeConfigSpec.ConfigValue<String> CHAPTER_GROUP;
@@ -171,6 +178,18 @@ public class AutoTierlistConfig {
                      "If false, only items matching tags or manual lists will be included")
             .define("useAttributeDetection", true);
 
+        USE_SCAN_CACHE = BUILDER
+            .comment("Cache scanned weapon and armor values in the world folder between restarts",
+                     "The cache is reused only while the mod list, datapacks, configured tag contents and item filter settings are unchanged")
+            .define("useScanCache", true);
+
+        PARALLEL_SCAN = BUILDER
+            .comment("Read item attributes and server recipes on worker threads during the registry scan and recipe extraction",
+                     "Also lays out large numbers of quest groups on worker threads",
+                     "Output order is unchanged; items and recipes that fail on a worker are retried on the server thread",
+                     "Disable if a mod misbehaves when its items are inspected off the server thread")
+            .define("parallelScan", false);
+
         SKIPPED_EMI_CATEGORIES = BUILDER
             .comment("EMI recipe categories to skip when building crafting chains",
                      "Format: \"modid:category_id\"",
@@ -181,6 +200,25 @@ public class AutoTierlistConfig {
                                  () -> List.of("emi:anvil_repairing"),
                                  obj -> obj instanceof String);
 
+        TAG_INGREDIENT_NODES = BUILDER
+            .comment("Keep tag ingredients (like forge:ingots) as one node in the recipe index",
+                     "instead of linking the output to every item in the tag",
+                     "Keeps the index small on packs with wide tags; tags are resolved against the tierlisted items when generating")
+            .define("tagIngredientNodes", false);
+
+        RECIPE_HOP_LIMIT = BUILDER
+            .comment("Maximum number of recipe steps between two linked tierlist items",
+                     "1 links an item only to tierlisted items used directly in its recipes",
+                     "Higher values also follow non-tierlisted intermediates, e.g. sword -> ingot -> upgraded ingot -> upgraded sword",
+                     "With tagIngredientNodes, the non-tierlisted members of a tag ingredient count as intermediates too")
+            .defineInRange("recipeHopLimit", 1, 1, 8);
+
+        REDUCE_QUEST_DEPENDENCIES = BUILDER
+            .comment("Drop quest dependencies that are already implied through another dependency",
+                     "Example: if A needs B and B needs C, A does not also get a direct dependency on C",
+                     "Fewer dependency lines to draw and check in progression chapters")
+            .define("reduceQuestDependencies", false);
+
         SKIPPED_ITEMS = BUILDER
             .comment("Items to completely skip during tierlist generation",
                      "Format: \"modid:itemname\"",
@@ -246,6 +284,16 @@ public class AutoTierlistConfig {
 
     public static final ForgeConfigSpec SPEC = BUILDER.build();
 
+    /**
+     * Recompile the generation settings snapshot when the config file is edited.
+     */
+    @SubscribeEvent
+    public static void onConfigReloading(ModConfigEvent.Reloading event) {
+        if (event.getConfig().getSpec() == SPEC) {
+            GenerationSettings.rebuild();
+        }
+    }
+
     public static List<TagEntry> getArmageddonTagEntries() {
         List<TagEntry> entries = new ArrayList<>();
 
@@ -0,0 +1,228 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.config;
+
+import com.saloeater.ftbquests_tierlists.Tierlists;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of AutoTierlistConfig compiled for generation.
+ * Tag keys, the skipped EMI category set, the item filter and tier overrides are resolved once,
+ * so the pipeline reads plain fields instead of querying ForgeConfigSpec values in hot loops.
+ *
+ * The snapshot is built on first use and rebuilt when the config file is reloaded.
+ */
+public final class GenerationSettings {
+    private static volatile GenerationSettings current;
+
+    private final boolean enableWeaponTierlist;
+    private final boolean enableArmorTierlist;
+    private final String weaponChapterId;
+    private final String armorChapterId;
+    private final String weaponChapterTitle;
+    private final String armorChapterTitle;
+    private final ResourceLocation weaponChapterIcon;
+    private final ResourceLocation armorChapterIcon;
+    private final String chapterGroup;
+    private final int indexInChapterGroup;
+
+    private final double questSpacingX;
+    private final double questSpacingY;
+    private final double tierSpacingY;
+    private final double dependentRowOffset;
+
+    private final boolean useScanCache;
+    private final boolean parallelScan;
+    private final String scanConfigKey;
+
+    private final ItemFilter itemFilter;
+    private final TierOverrideManager overrideManager;
+    private final TagEntryIndex tagEntryIndex;
+    private final Set<ResourceLocation> skippedEmiCategories;
+    private final boolean tagIngredientNodes;
+    private final int recipeHopLimit;
+    private final boolean reduceQuestDependencies;
+
+    private GenerationSettings() {
+        enableWeaponTierlist = AutoTierlistConfig.ENABLE_WEAPON_TIERLIST.get();
+        enableArmorTierlist = AutoTierlistConfig.ENABLE_ARMOR_TIERLIST.get();
+        weaponChapterId = AutoTierlistConfig.WEAPON_CHAPTER_ID.get();
+        armorChapterId = AutoTierlistConfig.ARMOR_CHAPTER_ID.get();
+        weaponChapterTitle = AutoTierlistConfig.WEAPON_CHAPTER_TITLE.get();
+        armorChapterTitle = AutoTierlistConfig.ARMOR_CHAPTER_TITLE.get();
+        weaponChapterIcon = AutoTierlistConfig.GetWeaponChapterIcon();
+        armorChapterIcon = AutoTierlistConfig.GetArmorChapterIcon();
+        chapterGroup = AutoTierlistConfig.CHAPTER_GROUP.get();
+        indexInChapterGroup = AutoTierlistConfig.GetIndexInChapterGroup();
+
+        questSpacingX = AutoTierlistConfig.QUEST_SPACING_X.get();
+        questSpacingY = AutoTierlistConfig.QUEST_SPACING_Y.get();
+        tierSpacingY = AutoTierlistConfig.TIER_SPACING_Y.get();
+        dependentRowOffset = AutoTierlistConfig.DEPENDENT_ROW_OFFSET.get();
+
+        useScanCache = AutoTierlistConfig.USE_SCAN_CACHE.get();
+        parallelScan = AutoTierlistConfig.PARALLEL_SCAN.get();
+        // Every value that can change which items a scan accepts, for the scan cache fingerprint
+        scanConfigKey = "attributeDetection=" + AutoTierlistConfig.USE_ATTRIBUTE_DETECTION.get() + '\n'
+            + "weaponTags=" + AutoTierlistConfig.WEAPON_TAGS.get() + '\n'
+            + "armorTags=" + AutoTierlistConfig.ARMOR_TAGS.get() + '\n'
+            + "weaponItems=" + AutoTierlistConfig.WEAPON_ITEMS.get() + '\n'
+            + "armorItems=" + AutoTierlistConfig.ARMOR_ITEMS.get() + '\n'
+            + "skippedItems=" + AutoTierlistConfig.SKIPPED_ITEMS.get() + '\n'
+            + "tagEntries=" + AutoTierlistConfig.ARMAGEDDON_TAGS.get() + '\n';
+
+        itemFilter = new ItemFilter(AutoTierlistConfig.USE_ATTRIBUTE_DETECTION.get());
+        itemFilter.loadSkippedItems(AutoTierlistConfig.SKIPPED_ITEMS.get());
+        itemFilter.loadWeaponTags(AutoTierlistConfig.WEAPON_TAGS.get());
+        itemFilter.loadWeaponItems(AutoTierlistConfig.WEAPON_ITEMS.get());
+        itemFilter.loadArmorTags(AutoTierlistConfig.ARMOR_TAGS.get());
+        itemFilter.loadArmorItems(AutoTierlistConfig.ARMOR_ITEMS.get());
+
+        overrideManager = new TierOverrideManager();
+        overrideManager.loadWeaponOverrides(AutoTierlistConfig.WEAPON_TIER_OVERRIDES.get());
+        overrideManager.loadArmorOverrides(AutoTierlistConfig.ARMOR_TIER_OVERRIDES.get());
+
+        tagEntryIndex = TagEntryIndex.fromConfig();
+
+        Set<ResourceLocation> categories = new HashSet<>();
+        for (String category : AutoTierlistConfig.SKIPPED_EMI_CATEGORIES.get()) {
+            ResourceLocation categoryId = ResourceLocation.tryParse(category);
+            if (categoryId != null) {
+                categories.add(categoryId);
+            } else {
+                Tierlists.LOGGER.warn("Invalid skipped EMI category '{}'", category);
+            }
+        }
+        skippedEmiCategories = Set.copyOf(categories);
+        tagIngredientNodes = AutoTierlistConfig.TAG_INGREDIENT_NODES.get();
+        recipeHopLimit = AutoTierlistConfig.RECIPE_HOP_LIMIT.get();
+        reduceQuestDependencies = AutoTierlistConfig.REDUCE_QUEST_DEPENDENCIES.get();
+    }
+
+    /**
+     * Get the current snapshot, compiling it from the config on first use.
+     */
+    public static GenerationSettings get() {
+        GenerationSettings settings = current;
+        if (settings == null) {
+            synchronized (GenerationSettings.class) {
+                settings = current;
+                if (settings == null) {
+                    settings = new GenerationSettings();
+                    current = settings;
+                }
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Recompile the snapshot after the config file changed.
+     * Does nothing until the snapshot has been used once, since registries may not be ready before that.
+     */
+    public static void rebuild() {
+        synchronized (GenerationSettings.class) {
+            if (current != null) {
+                current = new GenerationSettings();
+                Tierlists.LOGGER.info("Auto-Tierlist generation settings reloaded");
+            }
+        }
+    }
+
+    public boolean isWeaponTierlistEnabled() {
+        return enableWeaponTierlist;
+    }
+
+    public boolean isArmorTierlistEnabled() {
+        return enableArmorTierlist;
+    }
+
+    public String getWeaponChapterId() {
+        return weaponChapterId;
+    }
+
+    public String getArmorChapterId() {
+        return armorChapterId;
+    }
+
+    public String getWeaponChapterTitle() {
+        return weaponChapterTitle;
+    }
+
+    public String getArmorChapterTitle() {
+        return armorChapterTitle;
+    }
+
+    public ResourceLocation getWeaponChapterIcon() {
+        return weaponChapterIcon;
+    }
+
+    public ResourceLocation getArmorChapterIcon() {
+        return armorChapterIcon;
+    }
+
+    public String getChapterGroup() {
+        return chapterGroup;
+    }
+
+    public int getIndexInChapterGroup() {
+        return indexInChapterGroup;
+    }
+
+    public double getQuestSpacingX() {
+        return questSpacingX;
+    }
+
+    public double getQuestSpacingY() {
+        return questSpacingY;
+    }
+
+    public double getTierSpacingY() {
+        return tierSpacingY;
+    }
+
+    public double getDependentRowOffset() {
+        return dependentRowOffset;
+    }
+
+    public boolean useScanCache() {
+        return useScanCache;
+    }
+
+    public boolean useParallelScan() {
+        return parallelScan;
+    }
+
+    public String getScanConfigKey() {
+        return scanConfigKey;
+    }
+
+    public ItemFilter getItemFilter() {
+        return itemFilter;
+    }
+
+    public TierOverrideManager getOverrideManager() {
+        return overrideManager;
+    }
+
+    public TagEntryIndex getTagEntryIndex() {
+        return tagEntryIndex;
+    }
+
+    public Set<ResourceLocation> getSkippedEmiCategories() {
+        return skippedEmiCategories;
+    }
+
+    public boolean useTagIngredientNodes() {
+        return tagIngredientNodes;
+    }
+
+    public int getRecipeHopLimit() {
+        return recipeHopLimit;
+    }
+
+    public boolean reduceQuestDependencies() {
+        return reduceQuestDependencies;
+    }
+}
@@ -2,6 +2,8 @@ package com.saloeater.ftbquests_tierlists.autotierlist.config;
 
 import com.mojang.logging.LogUtils;
 import com.saloeater.ftbquests_tierlists.Tierlists;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagKey;
@@ -10,7 +12,9 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.slf4j.Logger;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -201,6 +205,64 @@ public class ItemFilter {
         return false;
     }
 
+    /**
+     * Whether items outside the weapon tags and item list can still be accepted as weapons.
+     * This is only the case when attribute detection is the sole weapon criterion.
+     */
+    public boolean acceptsUnlistedWeapons() {
+        return useAttributeDetection && weaponTags.isEmpty() && weaponItems.isEmpty();
+    }
+
+    /**
+     * Whether items outside the armor tags and item list can still be accepted as armor.
+     * This is only the case when attribute detection is the sole armor criterion.
+     */
+    public boolean acceptsUnlistedArmor() {
+        return useAttributeDetection && armorTags.isEmpty() && armorItems.isEmpty();
+    }
+
+    /**
+     * Collect every item that could pass isWeapon/isArmor through a tag or a manual list.
+     * Tag members are read from the registry's tag holders, so no per-item tag checks are made.
+     * Skipped items are not removed here; the per-item filter still applies.
+     *
+     * @param weapons Include weapon tags and items
+     * @param armor Include armor tags and items
+     * @return Candidate items, in no particular order
+     */
+    public Set<Item> collectListedItems(boolean weapons, boolean armor) {
+        Set<Item> items = new LinkedHashSet<>();
+        if (weapons) {
+            addListedItems(weaponTags, weaponItems, items);
+        }
+        if (armor) {
+            addListedItems(armorTags, armorItems, items);
+        }
+        return items;
+    }
+
+    private void addListedItems(Set<TagKey<Item>> tags, Set<ResourceLocation> itemIds, Set<Item> items) {
+        for (TagKey<Item> tag : tags) {
+            for (Holder<Item> holder : BuiltInRegistries.ITEM.getTagOrEmpty(tag)) {
+                items.add(holder.value());
+            }
+        }
+        for (ResourceLocation itemId : itemIds) {
+            Item item = ForgeRegistries.ITEMS.getValue(itemId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+    }
+
+    public Set<TagKey<Item>> getWeaponTags() {
+        return Collections.unmodifiableSet(weaponTags);
+    }
+
+    public Set<TagKey<Item>> getArmorTags() {
+        return Collections.unmodifiableSet(armorTags);
+    }
+
     /**
      * Get statistics about loaded filters.
      */
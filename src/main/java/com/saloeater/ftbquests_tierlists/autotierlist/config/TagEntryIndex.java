@@ -0,0 +1,73 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.config;
+
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Armageddon tag entries compiled once per generation, with their tag keys already parsed.
+ * Resolves an item to the index of the first entry it belongs to; that index is shared by
+ * sorting, tag grouping and quest title decoration.
+ */
+public class TagEntryIndex {
+    public static final int NO_ENTRY = -1;
+
+    private final List<AutoTierlistConfig.TagEntry> entries;
+    private final List<List<TagKey<Item>>> tagKeys = new ArrayList<>();
+
+    public TagEntryIndex(List<AutoTierlistConfig.TagEntry> entries) {
+        this.entries = List.copyOf(entries);
+        for (AutoTierlistConfig.TagEntry entry : this.entries) {
+            tagKeys.add(entry.getTagKeys());
+        }
+    }
+
+    /**
+     * Compile the tag entries currently in the config.
+     */
+    public static TagEntryIndex fromConfig() {
+        return new TagEntryIndex(AutoTierlistConfig.getArmageddonTagEntries());
+    }
+
+    /**
+     * Find the first entry (in config order) that the stack has any tag of.
+     *
+     * @param stack The item stack
+     * @return Entry index, or NO_ENTRY if the stack matches none
+     */
+    public int resolve(ItemStack stack) {
+        for (int i = 0; i < tagKeys.size(); i++) {
+            for (TagKey<Item> tagKey : tagKeys.get(i)) {
+                if (stack.is(tagKey)) {
+                    return i;
+                }
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Get the entry at an index, or null for NO_ENTRY.
+     */
+    public AutoTierlistConfig.TagEntry getEntry(int index) {
+        return index == NO_ENTRY ? null : entries.get(index);
+    }
+
+    /**
+     * Parsed tag keys of an entry, in config order.
+     */
+    public List<TagKey<Item>> getTagKeys(int index) {
+        return tagKeys.get(index);
+    }
+
+    public List<AutoTierlistConfig.TagEntry> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
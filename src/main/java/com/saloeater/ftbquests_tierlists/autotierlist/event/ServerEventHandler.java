@@ -2,7 +2,11 @@ package com.saloeater.ftbquests_tierlists.autotierlist.event;
 
 import com.saloeater.ftbquests_tierlists.Tierlists;
 import com.saloeater.ftbquests_tierlists.autotierlist.command.AutoTierlistServerCommand;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.RecipeIndex;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
@@ -19,4 +23,20 @@ public class ServerEventHandler {
         AutoTierlistServerCommand.register(event.getDispatcher());
         Tierlists.LOGGER.info("Auto-Tierlist server commands registered");
     }
+
+    /**
+     * Drop the recipe index whenever datapacks (and with them recipes) are reloaded.
+     */
+    @SubscribeEvent
+    public static void onAddReloadListeners(AddReloadListenerEvent event) {
+        event.addListener((ResourceManagerReloadListener) resourceManager -> RecipeIndex.invalidate());
+    }
+
+    /**
+     * Drop the recipe index when the server stops, so the next world starts clean.
+     */
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        RecipeIndex.invalidate();
+    }
 }
@@ -1,18 +1,26 @@
 package com.saloeater.ftbquests_tierlists.autotierlist.generation;
 
 import com.saloeater.ftbquests_tierlists.Tierlists;
+import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemIdDictionary;
 import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemScanner;
 import com.saloeater.ftbquests_tierlists.autotierlist.analysis.TierCalculator;
 import com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.ItemFilter;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.TagEntryIndex;
 import com.saloeater.ftbquests_tierlists.autotierlist.config.TierOverrideManager;
 import com.saloeater.ftbquests_tierlists.autotierlist.progression.CraftingChainDetector;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.OnlineTopologicalOrder;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.RecipeGraph;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.StronglyConnectedComponents;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.TransitiveReduction;
 import dev.ftb.mods.ftblibrary.config.ColorConfig;
 import dev.ftb.mods.ftblibrary.config.ConfigGroup;
 import dev.ftb.mods.ftblibrary.config.ConfigValue;
 import dev.ftb.mods.ftblibrary.icon.Color4I;
 import dev.ftb.mods.ftblibrary.icon.Icon;
 import dev.ftb.mods.ftbquests.quest.*;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.resources.ResourceLocation;
@@ -30,33 +38,39 @@ import java.util.stream.Collectors;
  * @param <T> The item data type (WeaponData or ArmorData)
  */
 public abstract class AbstractTierlistGenerator<T> {
+    protected final GenerationSettings settings;
     protected final TierOverrideManager overrideManager;
-    protected final Map<ResourceLocation, Quest> itemToQuestMap = new HashMap<>();
-
-    public AbstractTierlistGenerator(TierOverrideManager overrideManager) {
-        this.overrideManager = overrideManager;
+    protected final TagEntryIndex tagEntryIndex;
+    // Generation-scoped: dense item ids and the quest created for each id
+    protected ItemIdDictionary dictionary;
+    protected Quest[] questsById = new Quest[0];
+    private OnlineTopologicalOrder dependencyOrder = new OnlineTopologicalOrder(0);
+    private int dependenciesCreated;
+
+    public AbstractTierlistGenerator(GenerationSettings settings) {
+        this.settings = settings;
+        this.overrideManager = settings.getOverrideManager();
+        this.tagEntryIndex = settings.getTagEntryIndex();
     }
 
-    public void generate(ServerQuestFile questFile, ServerLevel level, boolean enableProgressionAlignment, ResourceLocation chapterIconItemId) {
+    public void generate(ServerQuestFile questFile, ServerLevel level, ItemScanner.ScanResult snapshot,
+                         boolean enableProgressionAlignment, ResourceLocation chapterIconItemId) {
         Tierlists.LOGGER.info("Generating {} tierlist (progression: {})...", getItemTypeName(), enableProgressionAlignment);
-        itemToQuestMap.clear();
 
         try {
-            // 1. Create and configure item filter
-            ItemFilter filter = new ItemFilter(AutoTierlistConfig.USE_ATTRIBUTE_DETECTION.get());
-            filter.loadSkippedItems(AutoTierlistConfig.SKIPPED_ITEMS.get());
-            configureFilter(filter);
-            Tierlists.LOGGER.info("Item filter configured: {}", filter.getStats());
-
-            // 2. Scan for items
-            ItemScanner scanner = new ItemScanner(filter);
-            List<T> items = scanItems(scanner);
+            // 1-2. Take this type's items from the shared scan snapshot (scanned once per command)
+            List<T> items = selectItems(snapshot);
 
             if (items.isEmpty()) {
                 Tierlists.LOGGER.warn("No {} found, skipping tierlist generation", getItemTypeName());
                 return;
             }
 
+            // Dense ids follow the snapshot order; every later stage indexes arrays by them
+            dictionary = ItemIdDictionary.of(items, this::getItemId);
+            questsById = new Quest[dictionary.size()];
+            dependencyOrder = new OnlineTopologicalOrder(dictionary.size());
+
             // 3. Calculate tier assignments
             TierCalculator calculator = new TierCalculator(
                 AutoTierlistConfig.TIER_MULTIPLIER,
@@ -71,53 +85,67 @@ public abstract class AbstractTierlistGenerator<T> {
                 allTieredItems.addAll(tierItems);
             }
 
-            // Build tier map and score map for grouping and layout
-            Map<ResourceLocation, Integer> tierMap = new HashMap<>();
-            Map<ResourceLocation, Double> scoreMap = new HashMap<>();
+            // Build tier and score arrays for grouping and layout
+            int[] tierById = new int[dictionary.size()];
+            double[] scoreById = new double[dictionary.size()];
             for (TierCalculator.TieredItem<T> item : allTieredItems) {
-                ResourceLocation id = getItemId(item.data());
-                tierMap.put(id, item.tier());
-                scoreMap.put(id, getItemScore(item.data()));
+                tierById[item.id()] = item.tier();
+                scoreById[item.id()] = getItemScore(item.data());
             }
 
             // 4. Detect progression chains if enabled
-            Map<ResourceLocation, Set<ResourceLocation>> recipeGraph = new HashMap<>();
+            Map<ResourceLocation, Set<ResourceLocation>> recipeRelations = Collections.emptyMap();
             if (enableProgressionAlignment) {
                 try {
-                    CraftingChainDetector detector = new CraftingChainDetector(level.getRecipeManager());
+                    CraftingChainDetector detector = new CraftingChainDetector(level.getRecipeManager(), settings);
                     List<ResourceLocation> itemIds = items.stream()
                         .map(this::getItemId)
                         .collect(Collectors.toList());
-                    recipeGraph = detector.getRecipeGraph(itemIds);
-                    Tierlists.LOGGER.info("Detected {} recipe relationships", recipeGraph.size());
+                    recipeRelations = detector.getRecipeGraph(itemIds);
+                    Tierlists.LOGGER.info("Detected {} recipe relationships", recipeRelations.size());
                 } catch (Exception e) {
                     Tierlists.LOGGER.error("Failed to detect progression chains, continuing without progression alignment", e);
                 }
             }
+            boolean hasRecipes = !recipeRelations.isEmpty();
+
+            // Forward and reverse indexes are built once and shared by every later stage
+            RecipeGraph recipeGraph = RecipeGraph.build(dictionary, recipeRelations);
 
             // Depth of same-tier dependency chains, used to nudge dependents below their ingredients
-            Map<ResourceLocation, Integer> sameTierDepths = ProgressionHelper.computeSameTierDepths(recipeGraph, tierMap);
+            int[] sameTierDepths = ProgressionHelper.computeSameTierDepths(recipeGraph, tierById);
+
+            // Progression chains are discovered once and shared by grouping and layout (progression mode only)
+            boolean progressionGroups = enableProgressionAlignment && hasRecipes;
+            ProgressionModel progressionModel = progressionGroups ? ProgressionModel.build(recipeGraph, tierById) : null;
 
             // === PHASE 1: Build item groups ===
             ItemGroupBuilder<T> groupBuilder = new ItemGroupBuilder<>(
                 this::getItemId,
-                this::getItemStack,
-                this::getItemScore
+                this::getTagEntryIndex,
+                this::getItemScore,
+                tagEntryIndex
             );
-            List<ItemGroup<T>> groups = groupBuilder.buildGroups(allTieredItems, recipeGraph, tierMap, enableProgressionAlignment);
+            List<ItemGroup<T>> groups = groupBuilder.buildGroups(allTieredItems, progressionModel);
 
             // === PHASE 2: Calculate layout for groups ===
-            GroupLayoutCalculator<T> layoutCalculator = new GroupLayoutCalculator<>(
-                this::getItemId,
-                this::getItemScore
-            );
+            GroupLayoutCalculator<T> layoutCalculator = new GroupLayoutCalculator<>(this::getItemId, settings.useParallelScan());
             int groupSpacing = enableProgressionAlignment ? GroupLayoutCalculator.PROGRESSION_SPACING : GroupLayoutCalculator.TIER_SPACING;
-            layoutCalculator.calculateLayout(groups, recipeGraph, tierMap, scoreMap, groupSpacing);
+            layoutCalculator.calculateLayout(groups, progressionModel, recipeGraph, tierById, scoreById,
+                dictionary.getNameRanks(), groupSpacing);
 
             // Build global column assignments from all groups
-            Map<ResourceLocation, Integer> columnAssignments = new HashMap<>();
+            int[] columns = new int[dictionary.size()];
+            Arrays.fill(columns, ItemGroup.NO_COLUMN);
+            boolean hasColumns = false;
             for (ItemGroup<T> group : groups) {
-                columnAssignments.putAll(group.getColumnAssignments());
+                for (int i = 0; i < group.size(); i++) {
+                    int column = group.getColumn(i);
+                    if (column != ItemGroup.NO_COLUMN) {
+                        columns[group.getItemId(i)] = column;
+                        hasColumns = true;
+                    }
+                }
             }
 
             // === PHASE 3: Generate quests ===
@@ -128,7 +156,7 @@ public abstract class AbstractTierlistGenerator<T> {
                 return;
             }
 
-            var chapterGroupId = AutoTierlistConfig.CHAPTER_GROUP.get();
+            var chapterGroupId = settings.getChapterGroup();
             if (!chapterGroupId.isEmpty()) {
                 for (ChapterGroup cg : questFile.getChapterGroups()) {
                     if (cg.getCodeString().equals(chapterGroupId)) {
@@ -145,8 +173,8 @@ public abstract class AbstractTierlistGenerator<T> {
                 chapter.setRawIcon(new ItemStack(item));
             }
             chapter.onCreated();
-            var targetIndex = AutoTierlistConfig.GetIndexInChapterGroup();
-            if (!targetIndex.equals(AutoTierlistConfig.NO_INDEX_IN_CHAPTER_GROUP)) {
+            int targetIndex = settings.getIndexInChapterGroup();
+            if (targetIndex != AutoTierlistConfig.NO_INDEX_IN_CHAPTER_GROUP) {
                 var currentIndex = chapter.getIndex();
                 var indexChange = currentIndex - targetIndex;
                 while (indexChange > 0 && chapter.getIndex() > 0) {
@@ -159,20 +187,20 @@ public abstract class AbstractTierlistGenerator<T> {
             List<Integer> sortedTiers = new ArrayList<>(tiers.keySet());
             Collections.sort(sortedTiers);
 
-            double questSpacingY = AutoTierlistConfig.QUEST_SPACING_Y.get();
-            double tierSpacingY = AutoTierlistConfig.TIER_SPACING_Y.get();
-            double dependentOffset = AutoTierlistConfig.DEPENDENT_ROW_OFFSET.get();
+            double questSpacingY = settings.getQuestSpacingY();
+            double tierSpacingY = settings.getTierSpacingY();
+            double dependentOffset = settings.getDependentRowOffset();
             double tierBaseY = 0;
             for (int tierIndex = 0; tierIndex < sortedTiers.size(); tierIndex++) {
                 int tier = sortedTiers.get(tierIndex);
                 List<TierCalculator.TieredItem<T>> tierItems = tiers.get(tier);
-                generateTierQuests(questFile, chapter, tier, tierIndex, tierBaseY, tierItems, columnAssignments, sameTierDepths);
+                generateTierQuests(questFile, chapter, tier, tierIndex, tierBaseY, tierItems, columns, hasColumns, sameTierDepths);
 
                 // Advance by this tier's actual height: dependent offsets can make it taller than one row
-                int maxDepth = tierItems.stream()
-                    .mapToInt(tieredItem -> sameTierDepths.getOrDefault(getItemId(tieredItem.data()), 0))
-                    .max()
-                    .orElse(0);
+                int maxDepth = 0;
+                for (TierCalculator.TieredItem<T> tieredItem : tierItems) {
+                    maxDepth = Math.max(maxDepth, sameTierDepths[tieredItem.id()]);
+                }
                 tierBaseY += AutoTierlistConfig.ROWS_PER_TIER * questSpacingY
                     + maxDepth * dependentOffset * questSpacingY
                     + tierSpacingY;
@@ -180,12 +208,12 @@ public abstract class AbstractTierlistGenerator<T> {
 
             // 6.5. Create header quests for tag groups (non-progression mode only)
             if (!enableProgressionAlignment) {
-                createTagGroupHeaders(questFile, chapter, level.getServer(), groups, columnAssignments, tierMap);
+                createTagGroupHeaders(questFile, chapter, level.getServer(), groups);
             }
 
             // 7. Create quest dependencies based on crafting relationships
-            if (enableProgressionAlignment && !recipeGraph.isEmpty()) {
-                createQuestDependencies(recipeGraph);
+            if (enableProgressionAlignment && hasRecipes) {
+                createQuestDependencies(recipeGraph, tierById);
             }
 
             Tierlists.LOGGER.info("{} tierlist generated successfully with {} tiers and {} groups",
@@ -215,8 +243,9 @@ public abstract class AbstractTierlistGenerator<T> {
     private void generateTierQuests(ServerQuestFile questFile, Chapter chapter, int tier, int tierIndex,
                                     double tierBaseY,
                                     List<TierCalculator.TieredItem<T>> items,
-                                    Map<ResourceLocation, Integer> columnAssignments,
-                                    Map<ResourceLocation, Integer> sameTierDepths) {
+                                    int[] columns,
+                                    boolean hasColumns,
+                                    int[] sameTierDepths) {
         // Create secret tier marker quest
         String tierLabel = getTierLabel(tier);
         QuestFactory.createSecretTierQuest(questFile, chapter, tierLabel, tierBaseY);
@@ -234,10 +263,10 @@ public abstract class AbstractTierlistGenerator<T> {
                 continue;
             }
 
-            double questY = QuestFactory.calculateQuestY(tierBaseY, row, AutoTierlistConfig.QUEST_SPACING_Y.get());
+            double questY = QuestFactory.calculateQuestY(tierBaseY, row, settings.getQuestSpacingY());
             // Calculate global row number for alternating colors (tierIndex * rowsPerTier + row)
             int globalRowNumber = tierIndex * AutoTierlistConfig.ROWS_PER_TIER + row;
-            generateRowQuests(questFile, chapter, rowItems, questY, columnAssignments, sameTierDepths, globalRowNumber);
+            generateRowQuests(questFile, chapter, rowItems, questY, columns, hasColumns, sameTierDepths, globalRowNumber);
         }
     }
 
@@ -247,23 +276,22 @@ public abstract class AbstractTierlistGenerator<T> {
     private void generateRowQuests(ServerQuestFile questFile, Chapter chapter,
                                    List<TierCalculator.TieredItem<T>> items,
                                    double questY,
-                                   Map<ResourceLocation, Integer> columnAssignments,
-                                   Map<ResourceLocation, Integer> sameTierDepths,
+                                   int[] columns,
+                                   boolean hasColumns,
+                                   int[] sameTierDepths,
                                    int rowNumber) {
         // Sort items: first by column assignment, then by Armageddon tag order, then by score (weaker first)
-        if (!columnAssignments.isEmpty()) {
+        if (hasColumns) {
             // Sort by assigned column (items without assignments get -1 to appear first),
             // then by Armageddon tag order (items with no tags = -1 to appear first),
             // then by score (ascending - weaker items first)
-            items.sort(Comparator.comparing((TierCalculator.TieredItem<T> item) ->
-                    columnAssignments.getOrDefault(getItemId(item.data()), -1))
-                .thenComparing(item -> getArmageddonTagIndex(getItemStack(item.data())))
-                .thenComparing(item -> getItemScore(item.data())));
+            items.sort(Comparator.comparingInt((TierCalculator.TieredItem<T> item) -> columns[item.id()])
+                .thenComparingInt(item -> getTagEntryIndex(item.data()))
+                .thenComparingDouble(item -> getItemScore(item.data())));
         } else {
             // No progression mode - sort by Armageddon tag order, then by score (weaker first)
-            items.sort(Comparator.comparing((TierCalculator.TieredItem<T> item) ->
-                    getArmageddonTagIndex(getItemStack(item.data())))
-                .thenComparing(item -> getItemScore(item.data())));
+            items.sort(Comparator.comparingInt((TierCalculator.TieredItem<T> item) -> getTagEntryIndex(item.data()))
+                .thenComparingDouble(item -> getItemScore(item.data())));
         }
 
         // Track current X position for sequential placement
@@ -271,26 +299,26 @@ public abstract class AbstractTierlistGenerator<T> {
 
         for (TierCalculator.TieredItem<T> item : items) {
             double questX;
-            ResourceLocation itemId = getItemId(item.data());
+            int column = columns[item.id()];
 
-            if (columnAssignments.containsKey(itemId)) {
+            if (column != ItemGroup.NO_COLUMN) {
                 // Use assigned column
-                int column = columnAssignments.get(itemId);
-                questX = column * AutoTierlistConfig.QUEST_SPACING_X.get();
+                questX = column * settings.getQuestSpacingX();
                 nextAutoColumn = Math.max(nextAutoColumn, column + 1);
             } else {
                 // Use sequential placement
-                questX = nextAutoColumn + AutoTierlistConfig.QUEST_SPACING_X.get();
+                questX = nextAutoColumn + settings.getQuestSpacingX();
                 nextAutoColumn++;
             }
 
             // Create quest and track it, nudging same-tier dependents below their ingredients
-            int depth = sameTierDepths.getOrDefault(itemId, 0);
+            int depth = sameTierDepths[item.id()];
             double itemY = QuestFactory.calculateQuestY(questY,
-                AutoTierlistConfig.DEPENDENT_ROW_OFFSET.get() * depth,
-                AutoTierlistConfig.QUEST_SPACING_Y.get());
-            Quest quest = QuestFactory.createItemQuest(questFile, chapter, getItemStack(item.data()), questX, itemY);
-            itemToQuestMap.put(itemId, quest);
+                settings.getDependentRowOffset() * depth,
+                settings.getQuestSpacingY());
+            AutoTierlistConfig.TagEntry tagEntry = tagEntryIndex.getEntry(getTagEntryIndex(item.data()));
+            Quest quest = QuestFactory.createItemQuest(questFile, chapter, getItemStack(item.data()), tagEntry, questX, itemY);
+            questsById[item.id()] = quest;
         }
 
         var shape = QuestShape.get("square").getShape();
@@ -338,9 +366,7 @@ public abstract class AbstractTierlistGenerator<T> {
      */
     private void createTagGroupHeaders(ServerQuestFile questFile, Chapter chapter,
                                       net.minecraft.server.MinecraftServer server,
-                                      List<ItemGroup<T>> groups,
-                                      Map<ResourceLocation, Integer> columnAssignments,
-                                      Map<ResourceLocation, Integer> tierMap) {
+                                      List<ItemGroup<T>> groups) {
         // Position headers above the global first row (Y = 0)
         double headerY = -4.0;
 
@@ -351,26 +377,21 @@ public abstract class AbstractTierlistGenerator<T> {
             if (tagEntry == null || !tagEntry.hasHeader()) continue;
 
             // Find the min and max columns used by this group
-            Integer minColumn = null;
-            Integer maxColumn = null;
-            for (T item : group.getItems()) {
-                ResourceLocation itemId = getItemId(item);
-                Integer column = columnAssignments.get(itemId);
-                if (column != null) {
-                    if (minColumn == null || column < minColumn) {
-                        minColumn = column;
-                    }
-                    if (maxColumn == null || column > maxColumn) {
-                        maxColumn = column;
-                    }
+            int minColumn = Integer.MAX_VALUE;
+            int maxColumn = ItemGroup.NO_COLUMN;
+            for (int i = 0; i < group.size(); i++) {
+                int column = group.getColumn(i);
+                if (column != ItemGroup.NO_COLUMN) {
+                    minColumn = Math.min(minColumn, column);
+                    maxColumn = Math.max(maxColumn, column);
                 }
             }
 
-            if (minColumn == null || maxColumn == null) continue;
+            if (maxColumn == ItemGroup.NO_COLUMN) continue;
 
             // Calculate center X position of the group
             double centerColumn = (minColumn + maxColumn) / 2.0;
-            double headerX = centerColumn * AutoTierlistConfig.QUEST_SPACING_X.get();
+            double headerX = centerColumn * settings.getQuestSpacingX();
 
             // Create header quest with 3x3 size and advancement task
             QuestFactory.createHeaderQuest(
@@ -390,146 +411,142 @@ public abstract class AbstractTierlistGenerator<T> {
 
     /**
      * Create quest dependencies based on crafting relationships.
-     * Uses topological ordering to avoid circular dependencies.
+     * Recipe cycles are found once as strongly connected components. Edges between components
+     * are always safe. Inside a component, edges that point to an earlier item (lower tier, then item id)
+     * are added first, then the remaining ones wherever they do not close a cycle,
+     * so every cycle is broken the same way on each run.
+     *
+     * The accepted edges are tracked in an OnlineTopologicalOrder, which checks each edge
+     * by searching only the part of the order it affects.
+     * Optionally, dependencies implied through another dependency are dropped before any quest is linked.
      */
-    private void createQuestDependencies(Map<ResourceLocation, Set<ResourceLocation>> recipeGraph) {
-        int dependenciesCreated = 0;
+    private void createQuestDependencies(RecipeGraph recipeGraph, int[] tiers) {
         int skippedCycles = 0;
 
-        // Build a set to track created dependencies for cycle detection
-        Map<Quest, Set<Quest>> questDependencies = new HashMap<>();
-
-        for (Map.Entry<ResourceLocation, Set<ResourceLocation>> entry : recipeGraph.entrySet()) {
-            ResourceLocation outputItem = entry.getKey();
-            Set<ResourceLocation> ingredientItems = entry.getValue();
+        StronglyConnectedComponents components = StronglyConnectedComponents.of(recipeGraph);
+        int[] nameRanks = dictionary.getNameRanks();
+        int[] skippedByComponent = new int[components.componentCount()];
 
-            Quest outputQuest = itemToQuestMap.get(outputItem);
-            if (outputQuest == null) {
-                continue;
+        // Components complete ingredients-first, so ordering by component already fits every edge between them
+        int[] seed = new int[recipeGraph.nodeCount()];
+        for (int id = 0; id < seed.length; id++) {
+            seed[id] = id;
+        }
+        IntArrays.quickSort(seed, (a, b) -> {
+            int byComponent = Integer.compare(components.componentOf(a), components.componentOf(b));
+            if (byComponent != 0) {
+                return byComponent;
             }
-
-            for (ResourceLocation ingredientItem : ingredientItems) {
-                Quest ingredientQuest = itemToQuestMap.get(ingredientItem);
-                if (ingredientQuest != null) {
-                    // Check if adding this dependency would create a cycle
-                    List<ResourceLocation> cyclePath = findCyclePath(outputQuest, ingredientQuest, questDependencies);
-                    if (cyclePath != null) {
-                        String cycleStr = String.join(" -> ", cyclePath.stream().map(ResourceLocation::toString).toList());
-                        Tierlists.LOGGER.warn("Skipping dependency {} -> {} to avoid circular dependency. Cycle: {} -> {}",
-                                  ingredientItem, outputItem, cycleStr, ingredientItem);
-                        skippedCycles++;
-                        continue;
-                    }
-
-                    try {
-                        outputQuest.addDependency(ingredientQuest);
-                        questDependencies.computeIfAbsent(outputQuest, k -> new HashSet<>()).add(ingredientQuest);
-                        dependenciesCreated++;
-                        Tierlists.LOGGER.debug("Added dependency: {} -> {}", ingredientItem, outputItem);
-                    } catch (Exception e) {
-                        Tierlists.LOGGER.warn("Failed to add dependency {} -> {}: {}",
-                                  ingredientItem, outputItem, e.getMessage());
-                    }
+            return tiers[a] != tiers[b]
+                ? Integer.compare(tiers[a], tiers[b])
+                : Integer.compare(nameRanks[a], nameRanks[b]);
+        });
+        dependencyOrder.seed(seed);
+        dependenciesCreated = 0;
+
+        // Accepted dependencies of each item, linked to quests once all edges are known
+        IntArrayList[] accepted = new IntArrayList[recipeGraph.nodeCount()];
+
+        // Pass 1: edges between components and edges inside a cycle that point to an earlier item
+        IntArrayList deferred = new IntArrayList();
+        for (int output = 0; output < recipeGraph.nodeCount(); output++) {
+            for (int e = recipeGraph.ingredientStart(output); e < recipeGraph.ingredientEnd(output); e++) {
+                int ingredient = recipeGraph.ingredientAt(e);
+                if (components.componentOf(output) == components.componentOf(ingredient)
+                    && !isBefore(ingredient, output, tiers, nameRanks)) {
+                    deferred.add(output);
+                    deferred.add(ingredient);
+                    continue;
                 }
+                acceptDependency(output, ingredient, accepted);
             }
         }
 
-        Tierlists.LOGGER.info("Created {} quest dependencies ({} skipped to avoid cycles)",
-                   dependenciesCreated, skippedCycles);
-    }
-
-    /**
-     * Find the cycle path if adding a dependency would create a cycle.
-     * Returns the path of item IDs that form the cycle, or null if no cycle would be created.
-     *
-     * @param dependent The quest that would depend on dependency
-     * @param dependency The quest that would be depended upon
-     * @param questDependencies Current quest dependency graph
-     * @return List of item IDs forming the cycle, or null if no cycle
-     */
-    private List<ResourceLocation> findCyclePath(Quest dependent, Quest dependency,
-                                                Map<Quest, Set<Quest>> questDependencies) {
-        // Build reverse lookup: Quest -> ItemId
-        Map<Quest, ResourceLocation> questToItem = new HashMap<>();
-        for (Map.Entry<ResourceLocation, Quest> entry : itemToQuestMap.entrySet()) {
-            questToItem.put(entry.getValue(), entry.getKey());
+        // Pass 2: the remaining edges inside cycles, wherever they leave the dependencies acyclic
+        for (int i = 0; i < deferred.size(); i += 2) {
+            int output = deferred.getInt(i);
+            int ingredient = deferred.getInt(i + 1);
+            if (!acceptDependency(output, ingredient, accepted)) {
+                skippedByComponent[components.componentOf(output)]++;
+                skippedCycles++;
+            }
         }
 
-        // If dependency already depends on dependent (directly or indirectly), adding this would create a cycle
-        List<Quest> cyclePath = findDependencyPath(dependency, dependent, questDependencies, new ArrayList<>(), new HashSet<>());
+        if (settings.reduceQuestDependencies()) {
+            int redundant = TransitiveReduction.reduce(accepted, dependencyOrder);
+            Tierlists.LOGGER.info("Dropped {} quest dependencies already implied through other dependencies", redundant);
+        }
+        for (int output = 0; output < accepted.length; output++) {
+            if (accepted[output] == null) {
+                continue;
+            }
+            for (int i = 0; i < accepted[output].size(); i++) {
+                linkQuests(output, accepted[output].getInt(i));
+            }
+        }
 
-        if (cyclePath != null) {
-            // Convert quest path to item ID path
-            List<ResourceLocation> itemPath = new ArrayList<>();
-            for (Quest quest : cyclePath) {
-                ResourceLocation itemId = questToItem.get(quest);
-                if (itemId != null) {
-                    itemPath.add(itemId);
-                }
+        // One report per recipe cycle instead of one per skipped edge
+        for (int component = 0; component < skippedByComponent.length; component++) {
+            if (skippedByComponent[component] == 0) {
+                continue;
+            }
+            int[] members = components.getMembers(component);
+            IntArrays.quickSort(members, (a, b) -> tiers[a] != tiers[b]
+                ? Integer.compare(tiers[a], tiers[b])
+                : Integer.compare(nameRanks[a], nameRanks[b]));
+            List<String> cycle = new ArrayList<>(members.length);
+            for (int member : members) {
+                cycle.add(dictionary.getItem(member).toString());
             }
-            return itemPath;
+            Tierlists.LOGGER.warn("Skipped {} dependencies to avoid a recipe cycle between {} items: {}",
+                skippedByComponent[component], members.length, String.join(", ", cycle));
         }
 
-        return null;
+        Tierlists.LOGGER.info("Created {} quest dependencies ({} skipped to avoid cycles)",
+                   dependenciesCreated, skippedCycles);
     }
 
     /**
-     * Find a dependency path from 'from' to 'to' using DFS.
-     * Returns the path as a list of quests, or null if no path exists.
+     * Record a dependency in the dependency order without linking the quests yet.
+     *
+     * @return false if the dependency was rejected because it would close a cycle
      */
-    private List<Quest> findDependencyPath(Quest from, Quest to,
-                                          Map<Quest, Set<Quest>> questDependencies,
-                                          List<Quest> currentPath,
-                                          Set<Quest> visited) {
-        if (from.equals(to)) {
-            currentPath.add(from);
-            return new ArrayList<>(currentPath);
+    private boolean acceptDependency(int dependent, int dependency, IntArrayList[] accepted) {
+        if (questsById[dependent] == null || questsById[dependency] == null) {
+            return true;
         }
-
-        if (visited.contains(from)) {
-            return null; // Already checked this path
+        if (!dependencyOrder.addEdge(dependency, dependent)) {
+            return false;
         }
-
-        visited.add(from);
-        currentPath.add(from);
-
-        Set<Quest> deps = questDependencies.get(from);
-        if (deps != null) {
-            for (Quest dep : deps) {
-                List<Quest> result = findDependencyPath(dep, to, questDependencies, currentPath, visited);
-                if (result != null) {
-                    return result;
-                }
-            }
+        if (accepted[dependent] == null) {
+            accepted[dependent] = new IntArrayList(2);
         }
+        accepted[dependent].add(dependency);
+        return true;
+    }
 
-        currentPath.remove(currentPath.size() - 1);
-        return null;
+    private void linkQuests(int dependent, int dependency) {
+        Quest dependentQuest = questsById[dependent];
+        Quest dependencyQuest = questsById[dependency];
+        try {
+            dependentQuest.addDependency(dependencyQuest);
+            dependenciesCreated++;
+            Tierlists.LOGGER.debug("Added dependency: {} -> {}",
+                dictionary.getItem(dependency), dictionary.getItem(dependent));
+        } catch (Exception e) {
+            Tierlists.LOGGER.warn("Failed to add dependency {} -> {}: {}",
+                dictionary.getItem(dependency), dictionary.getItem(dependent), e.getMessage());
+        }
     }
 
     /**
-     * Get the Armageddon tag index for an item.
-     * Returns -1 if the item has no Armageddon tags (will appear first).
-     * Returns the index of the first matching tag in the config (0, 1, 2, etc.).
-     * This allows sorting items by their tag priority from the config.
+     * Order used to break recipe cycles: lower tier first, then item id.
      */
-    private int getArmageddonTagIndex(ItemStack stack) {
-        List<AutoTierlistConfig.TagEntry> tagEntries = AutoTierlistConfig.getArmageddonTagEntries();
-
-        // Check each tag entry in order (this is the priority order)
-        for (int i = 0; i < tagEntries.size(); i++) {
-            AutoTierlistConfig.TagEntry entry = tagEntries.get(i);
-
-            // Check if the item has any of this entry's tags
-            for (var tagKey : entry.getTagKeys()) {
-                if (stack.is(tagKey)) {
-                    return i; // Return the index of this tag entry
-                }
-            }
+    private static boolean isBefore(int a, int b, int[] tiers, int[] nameRanks) {
+        if (tiers[a] != tiers[b]) {
+            return tiers[a] < tiers[b];
         }
-
-        // No Armageddon tags found, return -1 so this item appears first
-        return -1;
+        return nameRanks[a] < nameRanks[b];
     }
 
     // Abstract methods that subclasses must implement
@@ -550,14 +567,9 @@ public abstract class AbstractTierlistGenerator<T> {
     protected abstract String getItemTypeName();
 
     /**
-     * Configure the item filter with tags and items.
-     */
-    protected abstract void configureFilter(ItemFilter filter);
-
-    /**
-     * Scan for items using the scanner.
+     * Select this type's items from the shared scan snapshot.
      */
-    protected abstract List<T> scanItems(ItemScanner scanner);
+    protected abstract List<T> selectItems(ItemScanner.ScanResult snapshot);
 
     /**
      * Assign tiers to items using the calculator.
@@ -574,6 +586,12 @@ public abstract class AbstractTierlistGenerator<T> {
      */
     protected abstract ItemStack getItemStack(T item);
 
+    /**
+     * Get the index of the item's first matching Armageddon tag entry, or -1 if none.
+     * Precomputed during the scan so sorting and grouping never re-check tags.
+     */
+    protected abstract int getTagEntryIndex(T item);
+
     /**
      * Get the tier label for displaying on the secret quest.
      */
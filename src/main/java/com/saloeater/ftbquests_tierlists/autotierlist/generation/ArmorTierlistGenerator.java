@@ -3,9 +3,7 @@ package com.saloeater.ftbquests_tierlists.autotierlist.generation;
 import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemData;
 import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemScanner;
 import com.saloeater.ftbquests_tierlists.autotierlist.analysis.TierCalculator;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.ItemFilter;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.TierOverrideManager;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.resources.ResourceLocation;
@@ -19,18 +17,18 @@ import java.util.Map;
  */
 public class ArmorTierlistGenerator extends AbstractTierlistGenerator<ItemData.ArmorData> {
 
-    public ArmorTierlistGenerator(TierOverrideManager overrideManager) {
-        super(overrideManager);
+    public ArmorTierlistGenerator(GenerationSettings settings) {
+        super(settings);
     }
 
     @Override
     protected String getChapterId() {
-        return AutoTierlistConfig.ARMOR_CHAPTER_ID.get();
+        return settings.getArmorChapterId();
     }
 
     @Override
     protected String getChapterTitle() {
-        return AutoTierlistConfig.ARMOR_CHAPTER_TITLE.get();
+        return settings.getArmorChapterTitle();
     }
 
     @Override
@@ -39,14 +37,8 @@ public class ArmorTierlistGenerator extends AbstractTierlistGenerator<ItemData.A
     }
 
     @Override
-    protected void configureFilter(ItemFilter filter) {
-        filter.loadArmorTags(AutoTierlistConfig.ARMOR_TAGS.get());
-        filter.loadArmorItems(AutoTierlistConfig.ARMOR_ITEMS.get());
-    }
-
-    @Override
-    protected List<ItemData.ArmorData> scanItems(ItemScanner scanner) {
-        return scanner.scanArmor();
+    protected List<ItemData.ArmorData> selectItems(ItemScanner.ScanResult snapshot) {
+        return snapshot.armor();
     }
 
     @Override
@@ -65,6 +57,11 @@ public class ArmorTierlistGenerator extends AbstractTierlistGenerator<ItemData.A
         return item.stack();
     }
 
+    @Override
+    protected int getTagEntryIndex(ItemData.ArmorData item) {
+        return item.tagEntryIndex();
+    }
+
     @Override
     protected String getTierLabel(int tier) {
         return String.format("[%d] Armor: %d", tier, tier);
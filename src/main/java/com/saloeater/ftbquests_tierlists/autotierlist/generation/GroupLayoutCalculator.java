@@ -2,12 +2,18 @@ package com.saloeater.ftbquests_tierlists.autotierlist.generation;
 
 import com.mojang.logging.LogUtils;
 import com.saloeater.ftbquests_tierlists.Tierlists;
+import com.saloeater.ftbquests_tierlists.autotierlist.analysis.WorkerPool;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.RecipeGraph;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import net.minecraft.resources.ResourceLocation;
 import org.slf4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Phase 2: Assigns column positions to items within each group.
@@ -19,13 +25,19 @@ public class GroupLayoutCalculator<T> {
     public static final int PROGRESSION_SPACING = 1;
     public static final int TIER_SPACING = 3;
 
+    // Below this many groups a worker pool costs more than it saves
+    private static final int PARALLEL_MIN_GROUPS = 32;
+
     private final Function<T, ResourceLocation> getItemId;
-    private final Function<T, Double> getItemScore;
+    private final boolean parallel;
 
-    public GroupLayoutCalculator(Function<T, ResourceLocation> getItemId,
-                                Function<T, Double> getItemScore) {
+    /**
+     * @param getItemId Item id of an entry
+     * @param parallel Whether large layouts may run on a worker pool (parallelScan)
+     */
+    public GroupLayoutCalculator(Function<T, ResourceLocation> getItemId, boolean parallel) {
         this.getItemId = getItemId;
-        this.getItemScore = getItemScore;
+        this.parallel = parallel;
     }
 
     /**
@@ -33,43 +45,123 @@ public class GroupLayoutCalculator<T> {
      * Assigns contiguous column ranges to each group with spacing between them.
      *
      * @param groups The item groups
-     * @param recipeGraph Recipe graph for progression chains
-     * @param tierMap Tier assignments for each item
-     * @param scoreMap Score values for each item
+     * @param progressionModel Progression chains of this generation; null when there are no progression groups
+     * @param recipeGraph Recipe graph over dense ids
+     * @param tiers Tier of each dense id
+     * @param scores Score of each dense id
+     * @param nameRanks Id-string rank of each dense id
      */
     public void calculateLayout(List<ItemGroup<T>> groups,
-                                Map<ResourceLocation, Set<ResourceLocation>> recipeGraph,
-                                Map<ResourceLocation, Integer> tierMap,
-                                Map<ResourceLocation, Double> scoreMap,
+                                ProgressionModel progressionModel,
+                                RecipeGraph recipeGraph,
+                                int[] tiers,
+                                double[] scores,
+                                int[] nameRanks,
                                 int groupSpacing) {
 
-        int nextStartColumn = 0;
+        long start = System.currentTimeMillis();
 
+        // Groups are independent apart from their start column: lay each out from column 0 first.
+        // Chains are disjoint, so their writes to the shared column array never overlap.
+        int[] chainColumns = new int[recipeGraph.nodeCount()];
+        List<ItemGroup<T>> nonEmpty = new ArrayList<>();
+        for (ItemGroup<T> group : groups) {
+            if (!group.isEmpty()) {
+                nonEmpty.add(group);
+            }
+        }
+
+        if (parallel && nonEmpty.size() >= PARALLEL_MIN_GROUPS) {
+            layoutParallel(nonEmpty, progressionModel, recipeGraph, tiers, scores, nameRanks, chainColumns);
+        } else {
+            for (ItemGroup<T> group : nonEmpty) {
+                layoutGroup(group, progressionModel, recipeGraph, tiers, scores, nameRanks, chainColumns);
+            }
+        }
+
+        // Then place the groups side by side in order
+        int nextStartColumn = 0;
         for (ItemGroup<T> group : groups) {
             if (group.isEmpty()) continue;
 
-            switch (group.getType()) {
-                case PROGRESSION_CHAIN:
-                    assignProgressionChainColumns(group, recipeGraph, tierMap, scoreMap, nextStartColumn);
-                    break;
+            // Width of this group, measured before shifting (-1 if nothing was placed)
+            int maxColumn = group.getMaxColumn();
+            group.shiftColumns(nextStartColumn);
+
+            // Next group starts after this one with spacing
+            nextStartColumn += maxColumn + groupSpacing;
+        }
+
+        Tierlists.LOGGER.info("Calculated layout for {} groups in {} ms", groups.size(), System.currentTimeMillis() - start);
+    }
 
-                case TAG_GROUP:
-                case ISOLATED:
-                    assignSequentialColumns(group, tierMap, nextStartColumn);
-                    break;
+    /**
+     * Lay out groups on a worker pool; groups that fail on a worker are laid out again on the calling thread.
+     * Rerunning a group is safe because both assigners overwrite every column they own.
+     */
+    private void layoutParallel(List<ItemGroup<T>> groups,
+                                ProgressionModel progressionModel,
+                                RecipeGraph recipeGraph,
+                                int[] tiers,
+                                double[] scores,
+                                int[] nameRanks,
+                                int[] chainColumns) {
+        List<ItemGroup<T>> failed = new ArrayList<>();
+        ForkJoinPool pool = WorkerPool.create("Auto-Tierlist-Layout-");
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>(groups.size());
+            for (ItemGroup<T> group : groups) {
+                tasks.add(() -> {
+                    try {
+                        layoutGroup(group, progressionModel, recipeGraph, tiers, scores, nameRanks, chainColumns);
+                        return true;
+                    } catch (RuntimeException | LinkageError | AssertionError e) {
+                        return false;
+                    }
+                });
             }
 
-            // Find the maximum column used in this group
-            int maxColumn = group.getColumnAssignments().values().stream()
-                .mapToInt(Integer::intValue)
-                .max()
-                .orElse(nextStartColumn - 1);
+            List<Future<Boolean>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < groups.size(); i++) {
+                if (!results.get(i).get()) {
+                    failed.add(groups.get(i));
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Parallel layout failed", e);
+        } finally {
+            pool.shutdown();
+        }
 
-            // Next group starts after this one with spacing
-            nextStartColumn = maxColumn + 0 + groupSpacing;
+        for (ItemGroup<T> group : failed) {
+            layoutGroup(group, progressionModel, recipeGraph, tiers, scores, nameRanks, chainColumns);
+        }
+        if (!failed.isEmpty()) {
+            Tierlists.LOGGER.warn("Laid out {} groups serially after parallel layout failures", failed.size());
         }
+    }
 
-        Tierlists.LOGGER.info("Calculated layout for {} groups", groups.size());
+    /**
+     * Lay out one group starting at column 0.
+     */
+    private void layoutGroup(ItemGroup<T> group,
+                             ProgressionModel progressionModel,
+                             RecipeGraph recipeGraph,
+                             int[] tiers,
+                             double[] scores,
+                             int[] nameRanks,
+                             int[] chainColumns) {
+        switch (group.getType()) {
+            case PROGRESSION_CHAIN:
+                assignProgressionChainColumns(group, progressionModel, recipeGraph, tiers, scores, nameRanks,
+                    0, chainColumns);
+                break;
+
+            case TAG_GROUP:
+            case ISOLATED:
+                assignSequentialColumns(group, tiers, scores, 0);
+                break;
+        }
     }
 
     /**
@@ -77,36 +169,21 @@ public class GroupLayoutCalculator<T> {
      * Delegates to ProgressionHelper for the complex column assignment logic.
      */
     private void assignProgressionChainColumns(ItemGroup<T> group,
-                                              Map<ResourceLocation, Set<ResourceLocation>> recipeGraph,
-                                              Map<ResourceLocation, Integer> tierMap,
-                                              Map<ResourceLocation, Double> scoreMap,
-                                              int startColumn) {
-
-        Set<ResourceLocation> chainItemIds = group.getChainItemIds();
-        if (chainItemIds == null) return;
-
-        List<ResourceLocation> itemIds = group.getItems().stream()
-            .map(getItemId)
-            .collect(Collectors.toList());
-
-        // Use ProgressionHelper to assign columns within this chain
-        Map<ResourceLocation, Integer> relativeColumns = ProgressionHelper.assignProgressionColumns(
-            itemIds, recipeGraph, tierMap, scoreMap
-        );
-
-        // Offset all columns to start at the group's start column
-        if (!relativeColumns.isEmpty()) {
-            int minColumn = relativeColumns.values().stream()
-                .mapToInt(Integer::intValue)
-                .min()
-                .orElse(0);
-
-            int offset = startColumn - minColumn;
-
-            for (Map.Entry<ResourceLocation, Integer> entry : relativeColumns.entrySet()) {
-                int absoluteColumn = entry.getValue() + offset;
-                group.setColumnAssignment(entry.getKey(), absoluteColumn);
-            }
+                                              ProgressionModel progressionModel,
+                                              RecipeGraph recipeGraph,
+                                              int[] tiers,
+                                              double[] scores,
+                                              int[] nameRanks,
+                                              int startColumn,
+                                              int[] columns) {
+
+        // A progression group holds exactly one chain of the model
+        int chain = progressionModel.getChain(group.getItemId(0));
+        ProgressionHelper.assignChainColumns(progressionModel, chain, recipeGraph, tiers, scores, nameRanks,
+            startColumn, columns);
+
+        for (int i = 0; i < group.size(); i++) {
+            group.setColumn(i, columns[group.getItemId(i)]);
         }
     }
 
@@ -115,39 +192,30 @@ public class GroupLayoutCalculator<T> {
      * Items are sorted by tier (ascending), then by mod ID, then by score (ascending - weaker first).
      */
     private void assignSequentialColumns(ItemGroup<T> group,
-                                        Map<ResourceLocation, Integer> tierMap,
+                                        int[] tiers,
+                                        double[] scores,
                                         int startColumn) {
 
-        // Sort items by tier, then by mod ID (namespace), then by score (weaker first)
-        List<T> sortedItems = new ArrayList<>(group.getItems());
-        sortedItems.sort(Comparator
-            .comparing((T item) -> tierMap.getOrDefault(getItemId.apply(item), Integer.MAX_VALUE))
-            .thenComparing((T item) -> getItemId.apply(item).getNamespace())
-            .thenComparing(getItemScore));
-
-        // Group items by tier to assign columns within each tier
-        Map<Integer, List<T>> itemsByTier = new HashMap<>();
-        for (T item : sortedItems) {
-            int tier = tierMap.getOrDefault(getItemId.apply(item), 0);
-            itemsByTier.computeIfAbsent(tier, k -> new ArrayList<>()).add(item);
+        // Sort positions by tier, then by mod ID (namespace), then by score (weaker first)
+        List<T> items = group.getItems();
+        int[] order = new int[items.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
         }
-
-        // Find the maximum number of items in any tier (this determines the width of the group)
-        int maxItemsInTier = itemsByTier.values().stream()
-            .mapToInt(List::size)
-            .max()
-            .orElse(0);
+        IntArrays.mergeSort(order, (a, b) -> {
+            int byTier = Integer.compare(tiers[group.getItemId(a)], tiers[group.getItemId(b)]);
+            if (byTier != 0) return byTier;
+            int byMod = getItemId.apply(items.get(a)).getNamespace()
+                .compareTo(getItemId.apply(items.get(b)).getNamespace());
+            if (byMod != 0) return byMod;
+            return Double.compare(scores[group.getItemId(a)], scores[group.getItemId(b)]);
+        });
 
         // Assign columns sequentially within each tier
-        for (Map.Entry<Integer, List<T>> entry : itemsByTier.entrySet()) {
-            List<T> tierItems = entry.getValue();
-
-            for (int i = 0; i < tierItems.size(); i++) {
-                T item = tierItems.get(i);
-                ResourceLocation itemId = getItemId.apply(item);
-                int column = startColumn + i;
-                group.setColumnAssignment(itemId, column);
-            }
+        Int2IntOpenHashMap nextIndexByTier = new Int2IntOpenHashMap();
+        for (int index : order) {
+            int tier = tiers[group.getItemId(index)];
+            group.setColumn(index, startColumn + nextIndexByTier.addTo(tier, 1));
         }
     }
 }
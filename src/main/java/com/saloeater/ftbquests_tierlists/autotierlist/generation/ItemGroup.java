@@ -1,7 +1,6 @@
 package com.saloeater.ftbquests_tierlists.autotierlist.generation;
 
 import com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig;
-import net.minecraft.resources.ResourceLocation;
 
 import java.util.*;
 
@@ -9,48 +8,53 @@ import java.util.*;
  * Represents a group of related items in the tierlist.
  * Groups can be progression chains, tag-based groups, or isolated items.
  *
+ * Items are stored with their dense ids; columns are kept in an array parallel to the items.
+ *
  * @param <T> The item data type (weapon or armor)
  */
 public class ItemGroup<T> {
+    public static final int NO_COLUMN = -1;
+
     private final GroupType type;
     private final List<T> items;
-    private final Map<ResourceLocation, Integer> columnAssignments;
+    private final int[] itemIds;
+    private final int[] columns;
 
     // For TAG_GROUP type
     private final AutoTierlistConfig.TagEntry tagEntry;
 
-    // For PROGRESSION_CHAIN type
-    private final Set<ResourceLocation> chainItemIds;
-
     /**
      * Create a progression chain group.
      */
-    public static <T> ItemGroup<T> progressionChain(List<T> items, Set<ResourceLocation> chainItemIds) {
-        return new ItemGroup<>(GroupType.PROGRESSION_CHAIN, items, null, chainItemIds);
+    public static <T> ItemGroup<T> progressionChain(List<T> items, int[] itemIds) {
+        return new ItemGroup<>(GroupType.PROGRESSION_CHAIN, items, itemIds, null);
     }
 
     /**
      * Create a tag-based group.
      */
-    public static <T> ItemGroup<T> tagGroup(List<T> items, AutoTierlistConfig.TagEntry tagEntry) {
-        return new ItemGroup<>(GroupType.TAG_GROUP, items, tagEntry, null);
+    public static <T> ItemGroup<T> tagGroup(List<T> items, int[] itemIds, AutoTierlistConfig.TagEntry tagEntry) {
+        return new ItemGroup<>(GroupType.TAG_GROUP, items, itemIds, tagEntry);
     }
 
     /**
      * Create an isolated items group.
      */
-    public static <T> ItemGroup<T> isolated(List<T> items) {
-        return new ItemGroup<>(GroupType.ISOLATED, items, null, null);
+    public static <T> ItemGroup<T> isolated(List<T> items, int[] itemIds) {
+        return new ItemGroup<>(GroupType.ISOLATED, items, itemIds, null);
     }
 
-    private ItemGroup(GroupType type, List<T> items,
-                     AutoTierlistConfig.TagEntry tagEntry,
-                     Set<ResourceLocation> chainItemIds) {
+    private ItemGroup(GroupType type, List<T> items, int[] itemIds,
+                     AutoTierlistConfig.TagEntry tagEntry) {
+        if (items.size() != itemIds.length) {
+            throw new IllegalArgumentException("Item and id counts differ: " + items.size() + " vs " + itemIds.length);
+        }
         this.type = type;
         this.items = new ArrayList<>(items);
-        this.columnAssignments = new HashMap<>();
+        this.itemIds = itemIds.clone();
+        this.columns = new int[itemIds.length];
+        Arrays.fill(this.columns, NO_COLUMN);
         this.tagEntry = tagEntry;
-        this.chainItemIds = chainItemIds != null ? new HashSet<>(chainItemIds) : null;
     }
 
     public GroupType getType() {
@@ -61,20 +65,48 @@ public class ItemGroup<T> {
         return Collections.unmodifiableList(items);
     }
 
-    public Map<ResourceLocation, Integer> getColumnAssignments() {
-        return columnAssignments;
+    /**
+     * Dense id of the item at a position in this group.
+     */
+    public int getItemId(int index) {
+        return itemIds[index];
     }
 
-    public void setColumnAssignment(ResourceLocation itemId, int column) {
-        columnAssignments.put(itemId, column);
+    /**
+     * Column of the item at a position in this group, or NO_COLUMN before layout.
+     */
+    public int getColumn(int index) {
+        return columns[index];
     }
 
-    public AutoTierlistConfig.TagEntry getTagEntry() {
-        return tagEntry;
+    public void setColumn(int index, int column) {
+        columns[index] = column;
     }
 
-    public Set<ResourceLocation> getChainItemIds() {
-        return chainItemIds != null ? Collections.unmodifiableSet(chainItemIds) : null;
+    /**
+     * Move every assigned column by an offset; unassigned items stay NO_COLUMN.
+     */
+    public void shiftColumns(int offset) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != NO_COLUMN) {
+                columns[i] += offset;
+            }
+        }
+    }
+
+    /**
+     * Highest assigned column in this group, or NO_COLUMN if none is assigned.
+     */
+    public int getMaxColumn() {
+        int max = NO_COLUMN;
+        for (int column : columns) {
+            max = Math.max(max, column);
+        }
+        return max;
+    }
+
+    public AutoTierlistConfig.TagEntry getTagEntry() {
+        return tagEntry;
     }
 
     public boolean isEmpty() {
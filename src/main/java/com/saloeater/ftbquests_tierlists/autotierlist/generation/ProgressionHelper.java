@@ -1,218 +1,86 @@
 package com.saloeater.ftbquests_tierlists.autotierlist.generation;
 
-import com.saloeater.ftbquests_tierlists.Tierlists;
-import com.saloeater.ftbquests_tierlists.autotierlist.progression.CraftingChainDetector;
-import com.mojang.logging.LogUtils;
-import net.minecraft.resources.ResourceLocation;
-import org.slf4j.Logger;
+import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemIdDictionary;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.RecipeGraph;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * Helper class for progression mode column assignment and chain building.
+ * Helper class for progression mode column assignment.
+ * Items are identified by their dense ids and read relationships from the shared RecipeGraph;
+ * chains come from the ProgressionModel built once per generation.
  */
 public class ProgressionHelper {
-    /**
-     * Assign column numbers for progression mode.
-     * Items with no dependencies and never used as dependencies go left (sequential).
-     * Items that are dependencies or have dependencies get their own columns.
-     * Each chain occupies a contiguous block of columns to prevent overlap.
-     */
-    public static Map<ResourceLocation, Integer> assignProgressionColumns(
-            List<ResourceLocation> items,
-            Map<ResourceLocation, Set<ResourceLocation>> recipeGraph,
-            Map<ResourceLocation, Integer> tierMap,
-            Map<ResourceLocation, Double> scoreMap) {
-
-        Map<ResourceLocation, Integer> columnAssignments = new HashMap<>();
-        Set<ResourceLocation> itemSet = new HashSet<>(items);
-
-        // Build reverse graph: ingredient -> outputs that use it
-        Map<ResourceLocation, Set<ResourceLocation>> reverseGraph = new HashMap<>();
-        for (Map.Entry<ResourceLocation, Set<ResourceLocation>> entry : recipeGraph.entrySet()) {
-            ResourceLocation output = entry.getKey();
-            for (ResourceLocation ingredient : entry.getValue()) {
-                if (itemSet.contains(ingredient)) {
-                    reverseGraph.computeIfAbsent(ingredient, k -> new HashSet<>()).add(output);
-                }
-            }
-        }
-
-        // Find items that have dependencies
-        Set<ResourceLocation> itemsWithDependencies = new HashSet<>();
-        for (ResourceLocation item : items) {
-            if (recipeGraph.containsKey(item)) {
-                Set<ResourceLocation> ingredients = recipeGraph.get(item);
-                if (ingredients.stream().anyMatch(itemSet::contains)) {
-                    itemsWithDependencies.add(item);
-                }
-            }
-        }
-
-        // Find items that are used as dependencies
-        Set<ResourceLocation> itemsUsedAsDependencies = new HashSet<>(reverseGraph.keySet());
-
-        // Calculate items that will use sequential placement (no deps and never used as deps)
-        Set<ResourceLocation> sequentialItems = new HashSet<>(items);
-        sequentialItems.removeAll(itemsWithDependencies);
-        sequentialItems.removeAll(itemsUsedAsDependencies);
-
-        // Find the maximum number of sequential items in any single tier/row
-        Map<Integer, Integer> sequentialCountByTier = new HashMap<>();
-        for (ResourceLocation item : sequentialItems) {
-            int tier = tierMap.getOrDefault(item, 0);
-            sequentialCountByTier.put(tier, sequentialCountByTier.getOrDefault(tier, 0) + 1);
-        }
-        int maxSequentialInRow = sequentialCountByTier.values().stream()
-            .max(Integer::compareTo)
-            .orElse(0);
-
-        // Build chains: groups of items connected by dependencies
-        Map<ResourceLocation, Set<ResourceLocation>> chains = new HashMap<>();
-        Set<ResourceLocation> processedItems = new HashSet<>();
-
-        // Sort items with dependencies by tier for consistent ordering
-        List<ResourceLocation> withDeps = new ArrayList<>(itemsWithDependencies);
-        withDeps.sort(Comparator.comparing(item -> tierMap.getOrDefault(item, Integer.MAX_VALUE)));
-
-        // Build chains by traversing dependency relationships
-        for (ResourceLocation item : withDeps) {
-            if (processedItems.contains(item)) continue;
-
-            Set<ResourceLocation> chain = new HashSet<>();
-            buildChain(item, chain, recipeGraph, reverseGraph, itemSet, itemsWithDependencies, itemsUsedAsDependencies);
-
-            if (!chain.isEmpty()) {
-                // Pick a representative for this chain (lowest tier item)
-                ResourceLocation representative = chain.stream()
-                    .min(Comparator.comparing(i -> tierMap.getOrDefault(i, Integer.MAX_VALUE)))
-                    .orElse(item);
-                chains.put(representative, chain);
-                processedItems.addAll(chain);
-            }
-        }
-
-        // Add remaining items used as dependencies
-        for (ResourceLocation dep : itemsUsedAsDependencies) {
-            if (!processedItems.contains(dep)) {
-                Set<ResourceLocation> chain = new HashSet<>();
-                chain.add(dep);
-                chains.put(dep, chain);
-                processedItems.add(dep);
-            }
-        }
-
-        // Sort chains by their minimum tier
-        List<Map.Entry<ResourceLocation, Set<ResourceLocation>>> sortedChains = new ArrayList<>(chains.entrySet());
-        sortedChains.sort(Comparator.comparing(e ->
-            e.getValue().stream()
-                .mapToInt(i -> tierMap.getOrDefault(i, Integer.MAX_VALUE))
-                .min()
-                .orElse(Integer.MAX_VALUE)
-        ));
-
-        // Assign columns to each chain
-        // Start after the widest row of sequential items
-        int nextColumn = maxSequentialInRow;
-
-        for (Map.Entry<ResourceLocation, Set<ResourceLocation>> chainEntry : sortedChains) {
-            Set<ResourceLocation> chain = chainEntry.getValue();
-            int chainStartColumn = nextColumn;
-
-            // Assign columns within this chain
-            assignChainColumns(chain, columnAssignments, recipeGraph, reverseGraph, itemSet, tierMap, scoreMap, chainStartColumn);
-
-            // Move to next available column after this chain
-            int maxColumnUsed = chain.stream()
-                .filter(columnAssignments::containsKey)
-                .mapToInt(columnAssignments::get)
-                .max()
-                .orElse(chainStartColumn - 1);
-            nextColumn = maxColumnUsed + 1;
-        }
-
-        Tierlists.LOGGER.info("Assigned {} items to {} progression chains",
-            columnAssignments.size(),
-            chains.size());
-
-        return columnAssignments;
-    }
-
     /**
      * Compute, for each item, the length of the longest chain of same-tier
-     * recipe dependencies below it. Dependencies in other tiers (or with an
-     * unknown tier) contribute nothing. Cycle-safe: back-edges count as depth 0.
+     * recipe dependencies below it. Dependencies in other tiers contribute
+     * nothing. Cycle-safe: back-edges count as depth 0.
+     *
+     * Runs a depth-first search over the same-tier edges with an explicit stack, roots and
+     * edges in id order, so cycles are always cut at the same back-edge. Depths are filled in
+     * post-order, which is a topological order of the remaining edges: linear time, no recursion.
+     *
+     * @param recipeGraph Recipe graph over dense ids
+     * @param tiers Tier of each dense id
+     * @return Depth of each dense id
      */
-    public static Map<ResourceLocation, Integer> computeSameTierDepths(
-            Map<ResourceLocation, Set<ResourceLocation>> recipeGraph,
-            Map<ResourceLocation, Integer> tierMap) {
-        Map<ResourceLocation, Integer> depths = new HashMap<>();
-        for (ResourceLocation item : tierMap.keySet()) {
-            computeSameTierDepth(item, recipeGraph, tierMap, depths, new HashSet<>());
-        }
-        return depths;
-    }
-
-    private static int computeSameTierDepth(ResourceLocation item,
-                                            Map<ResourceLocation, Set<ResourceLocation>> recipeGraph,
-                                            Map<ResourceLocation, Integer> tierMap,
-                                            Map<ResourceLocation, Integer> depths,
-                                            Set<ResourceLocation> visiting) {
-        Integer cached = depths.get(item);
-        if (cached != null) {
-            return cached;
-        }
-        if (!visiting.add(item)) {
-            return 0;
-        }
-
-        Integer tier = tierMap.get(item);
-        int depth = 0;
-        if (tier != null) {
-            for (ResourceLocation dep : recipeGraph.getOrDefault(item, Collections.emptySet())) {
-                if (tier.equals(tierMap.get(dep))) {
-                    depth = Math.max(depth, computeSameTierDepth(dep, recipeGraph, tierMap, depths, visiting) + 1);
-                }
+    public static int[] computeSameTierDepths(RecipeGraph recipeGraph, int[] tiers) {
+        int itemCount = tiers.length;
+        int[] depths = new int[itemCount];
+        Arrays.fill(depths, -1);
+        boolean[] visiting = new boolean[itemCount];
+
+        int[] stack = new int[itemCount];
+        int[] edgeCursor = new int[itemCount];
+        int top = 0;
+
+        for (int root = 0; root < itemCount; root++) {
+            if (depths[root] >= 0) {
+                continue;
             }
-        }
-
-        visiting.remove(item);
-        depths.put(item, depth);
-        return depth;
-    }
-
-    /**
-     * Build a chain of related items by following dependency connections.
-     */
-    private static void buildChain(ResourceLocation item, Set<ResourceLocation> chain,
-                           Map<ResourceLocation, Set<ResourceLocation>> recipeGraph,
-                           Map<ResourceLocation, Set<ResourceLocation>> reverseGraph,
-                           Set<ResourceLocation> itemSet,
-                           Set<ResourceLocation> itemsWithDependencies,
-                           Set<ResourceLocation> itemsUsedAsDependencies) {
-        if (chain.contains(item)) return;
-
-        // Add this item if it's part of dependency system
-        if (itemsWithDependencies.contains(item) || itemsUsedAsDependencies.contains(item)) {
-            chain.add(item);
-
-            // Add dependencies
-            Set<ResourceLocation> deps = recipeGraph.getOrDefault(item, Collections.emptySet());
-            for (ResourceLocation dep : deps) {
-                if (itemSet.contains(dep) && itemsUsedAsDependencies.contains(dep)) {
-                    buildChain(dep, chain, recipeGraph, reverseGraph, itemSet, itemsWithDependencies, itemsUsedAsDependencies);
+            visiting[root] = true;
+            depths[root] = 0;
+            stack[top] = root;
+            edgeCursor[top] = recipeGraph.ingredientStart(root);
+            top++;
+
+            while (top > 0) {
+                int item = stack[top - 1];
+                int edge = edgeCursor[top - 1];
+
+                if (edge < recipeGraph.ingredientEnd(item)) {
+                    edgeCursor[top - 1]++;
+                    int dep = recipeGraph.ingredientAt(edge);
+                    if (tiers[dep] != tiers[item]) {
+                        continue;
+                    }
+                    if (visiting[dep]) {
+                        // Back-edge: the ingredient counts as depth 0
+                        depths[item] = Math.max(depths[item], 1);
+                    } else if (depths[dep] >= 0) {
+                        depths[item] = Math.max(depths[item], depths[dep] + 1);
+                    } else {
+                        visiting[dep] = true;
+                        depths[dep] = 0;
+                        stack[top] = dep;
+                        edgeCursor[top] = recipeGraph.ingredientStart(dep);
+                        top++;
+                    }
+                    continue;
                 }
-            }
 
-            // Add dependents
-            Set<ResourceLocation> dependents = reverseGraph.getOrDefault(item, Collections.emptySet());
-            for (ResourceLocation dependent : dependents) {
-                if (itemSet.contains(dependent) && itemsWithDependencies.contains(dependent)) {
-                    buildChain(dependent, chain, recipeGraph, reverseGraph, itemSet, itemsWithDependencies, itemsUsedAsDependencies);
+                // All ingredients handled: the depth is final, pass it up to the dependent
+                visiting[item] = false;
+                top--;
+                if (top > 0) {
+                    int dependent = stack[top - 1];
+                    depths[dependent] = Math.max(depths[dependent], depths[item] + 1);
                 }
             }
         }
+        return depths;
     }
 
     /**
@@ -225,94 +93,103 @@ public class ProgressionHelper {
      * - This creates visual hierarchy where items flow down from their "primary" dependency
      * - Multiple items can share the same column (vertical alignment across tiers)
      * - Items in the same tier cannot share columns (prevents overlaps)
+     *
+     * @param progressionModel Chains of this generation
+     * @param chain Chain to place
+     * @param recipeGraph Recipe graph over dense ids
+     * @param tiers Tier of each dense id
+     * @param scores Score of each dense id
+     * @param nameRanks Id-string rank of each dense id, for deterministic ordering
+     * @param startColumn First column of the chain's block
+     * @param columns Column of each dense id; this chain's members are written, starting at startColumn
      */
-    private static void assignChainColumns(Set<ResourceLocation> chain,
-                                    Map<ResourceLocation, Integer> columnAssignments,
-                                    Map<ResourceLocation, Set<ResourceLocation>> recipeGraph,
-                                    Map<ResourceLocation, Set<ResourceLocation>> reverseGraph,
-                                    Set<ResourceLocation> itemSet,
-                                    Map<ResourceLocation, Integer> tierMap,
-                                    Map<ResourceLocation, Double> scoreMap,
-                                    int startColumn) {
-
-        Set<ResourceLocation> assigned = new HashSet<>();
+    public static void assignChainColumns(ProgressionModel progressionModel,
+                                          int chain,
+                                          RecipeGraph recipeGraph,
+                                          int[] tiers,
+                                          double[] scores,
+                                          int[] nameRanks,
+                                          int startColumn,
+                                          int[] columns) {
+
+        int[] members = progressionModel.getMembers(chain);
+        for (int member : members) {
+            columns[member] = ItemGroup.NO_COLUMN;
+        }
+        // Columns taken by this chain's items, per tier, relative to startColumn
+        Int2ObjectOpenHashMap<BitSet> occupiedByTier = new Int2ObjectOpenHashMap<>();
 
         // Sort chain items by tier (ascending), then by score (ascending - weaker first), then by ID for deterministic ordering
-        List<ResourceLocation> chainItems = new ArrayList<>(chain);
-        chainItems.sort(Comparator.comparing((ResourceLocation item) -> tierMap.getOrDefault(item, Integer.MAX_VALUE))
-            .thenComparing((ResourceLocation item) -> scoreMap.getOrDefault(item, 0.0)) // Weaker items first
-            .thenComparing(ResourceLocation::toString));
+        IntArrayList chainItems = new IntArrayList(members);
+        chainItems.sort((a, b) -> {
+            int byTier = Integer.compare(tiers[a], tiers[b]);
+            if (byTier != 0) return byTier;
+            int byScore = Double.compare(scores[a], scores[b]); // Weaker items first
+            if (byScore != 0) return byScore;
+            return Integer.compare(nameRanks[a], nameRanks[b]);
+        });
 
         // First pass: assign columns in tier order, trying to align with right-most dependency
         int nextColumn = startColumn;
+        IntArrayList depsInChain = new IntArrayList();
+
+        for (int i = 0; i < chainItems.size(); i++) {
+            int item = chainItems.getInt(i);
+            if (columns[item] != ItemGroup.NO_COLUMN) continue;
+
+            // Get this item's dependencies (ingredients) that are in the chain and already assigned
+            depsInChain.clear();
+            for (int e = recipeGraph.ingredientStart(item); e < recipeGraph.ingredientEnd(item); e++) {
+                int dep = recipeGraph.ingredientAt(e);
+                if (progressionModel.getChain(dep) == chain && columns[dep] != ItemGroup.NO_COLUMN) {
+                    depsInChain.add(dep);
+                }
+            }
 
-        for (ResourceLocation item : chainItems) {
-            if (assigned.contains(item)) continue;
-
-            // Get this item's dependencies (ingredients) that are in the chain
-            Set<ResourceLocation> deps = recipeGraph.getOrDefault(item, Collections.emptySet());
-            List<ResourceLocation> depsInChain = deps.stream()
-                .filter(chain::contains)
-                .filter(assigned::contains) // Only consider already-assigned dependencies
-                .collect(Collectors.toList());
-
-            Integer assignedColumn = null;
+            int assignedColumn = ItemGroup.NO_COLUMN;
+            int itemTier = tiers[item];
+            BitSet occupied = occupiedByTier.computeIfAbsent(itemTier, t -> new BitSet());
 
             if (!depsInChain.isEmpty()) {
-                int itemTier = tierMap.getOrDefault(item, 0);
-
                 // Find the right-most dependency (highest column number)
-                ResourceLocation rightMostDep = null;
+                int rightMostDep = ItemIdDictionary.NO_ID;
                 int maxColumn = -1;
 
-                for (ResourceLocation dep : depsInChain) {
-                    int depColumn = columnAssignments.get(dep);
+                for (int d = 0; d < depsInChain.size(); d++) {
+                    int dep = depsInChain.getInt(d);
+                    int depColumn = columns[dep];
 
                     // Check if this column is already used by another item in the same tier
-                    boolean columnUsedInTier = false;
-                    for (Map.Entry<ResourceLocation, Integer> entry : columnAssignments.entrySet()) {
-                        if (entry.getValue() == depColumn &&
-                            tierMap.getOrDefault(entry.getKey(), 0) == itemTier &&
-                            assigned.contains(entry.getKey())) {
-                            columnUsedInTier = true;
-                            break;
-                        }
-                    }
+                    boolean columnUsedInTier = occupied.get(depColumn - startColumn);
 
                     // If column is available and it's further right, use it
-                    var tierDistance = tierMap.get(dep) - tierMap.get(item);
+                    int tierDistance = tiers[dep] - itemTier;
                     if (!columnUsedInTier && depColumn > maxColumn && tierDistance < 0) {
                         maxColumn = depColumn;
                         rightMostDep = dep;
                     }
                 }
 
-                if (rightMostDep != null) {
-                    assignedColumn = columnAssignments.get(rightMostDep);
+                if (rightMostDep != ItemIdDictionary.NO_ID) {
+                    assignedColumn = columns[rightMostDep];
                 }
             }
 
-            if (assignedColumn == null) {
+            if (assignedColumn == ItemGroup.NO_COLUMN) {
                 // No suitable dependency column found, or no dependencies - assign new column
                 assignedColumn = nextColumn++;
             }
 
             // Ensure dependent is never to the left of any dependency
             if (!depsInChain.isEmpty()) {
-                int maxDependencyColumn = depsInChain.stream()
-                    .mapToInt(dep -> columnAssignments.get(dep))
-                    .max()
-                    .orElse(-1);
+                int maxDependencyColumn = -1;
+                for (int d = 0; d < depsInChain.size(); d++) {
+                    maxDependencyColumn = Math.max(maxDependencyColumn, columns[depsInChain.getInt(d)]);
+                }
 
                 if (assignedColumn < maxDependencyColumn) {
-                    // Find next available column at or right of the rightmost dependency
-                    int itemTier = tierMap.getOrDefault(item, 0);
-                    assignedColumn = maxDependencyColumn;
-
-                    // Check if this column is occupied in the same tier
-                    while (isColumnOccupiedInTier(assignedColumn, itemTier, columnAssignments, tierMap, assigned)) {
-                        assignedColumn++;
-                    }
+                    // Next column at or right of the rightmost dependency that is free in this tier
+                    assignedColumn = startColumn + occupied.nextClearBit(maxDependencyColumn - startColumn);
 
                     // Update nextColumn if we went beyond it
                     if (assignedColumn >= nextColumn) {
@@ -321,25 +198,8 @@ public class ProgressionHelper {
                 }
             }
 
-            columnAssignments.put(item, assignedColumn);
-            assigned.add(item);
-        }
-    }
-
-    /**
-     * Check if a column is already occupied by another item in the same tier.
-     */
-    private static boolean isColumnOccupiedInTier(int column, int tier,
-                                                   Map<ResourceLocation, Integer> columnAssignments,
-                                                   Map<ResourceLocation, Integer> tierMap,
-                                                   Set<ResourceLocation> assigned) {
-        for (Map.Entry<ResourceLocation, Integer> entry : columnAssignments.entrySet()) {
-            if (entry.getValue() == column &&
-                tierMap.getOrDefault(entry.getKey(), 0) == tier &&
-                assigned.contains(entry.getKey())) {
-                return true;
-            }
+            columns[item] = assignedColumn;
+            occupied.set(assignedColumn - startColumn);
         }
-        return false;
     }
 }
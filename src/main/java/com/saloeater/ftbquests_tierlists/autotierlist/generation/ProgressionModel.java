@@ -0,0 +1,157 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.generation;
+
+import com.saloeater.ftbquests_tierlists.Tierlists;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.RecipeGraph;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Arrays;
+
+/**
+ * Progression chains of one generation, computed once from the RecipeGraph and shared by
+ * ItemGroupBuilder (one group per chain) and ProgressionHelper (columns within a chain).
+ *
+ * A chain is a connected component of the recipe graph, following edges in both directions.
+ * Items without any recipe relation belong to no chain and are laid out sequentially.
+ * Chains are ordered by their lowest tier, then by the lowest-tier item that has dependencies.
+ */
+public class ProgressionModel {
+    public static final int NO_CHAIN = -1;
+
+    private final int[] chainOf;
+    private final int[][] members;
+
+    private ProgressionModel(int[] chainOf, int[][] members) {
+        this.chainOf = chainOf;
+        this.members = members;
+    }
+
+    /**
+     * Find the chains of a graph in O(items + edges).
+     * Chains are walked with a worklist shared by all chains and one marker array that doubles
+     * as the visited set, so arbitrarily long upgrade ladders cannot overflow the server thread's stack.
+     *
+     * @param recipeGraph Recipe graph over dense ids
+     * @param tiers Tier of each dense id
+     */
+    public static ProgressionModel build(RecipeGraph recipeGraph, int[] tiers) {
+        long start = System.currentTimeMillis();
+        int itemCount = recipeGraph.nodeCount();
+
+        // Discover chains from items with dependencies, lowest tier first
+        IntArrayList withDeps = new IntArrayList();
+        for (int id = 0; id < itemCount; id++) {
+            if (recipeGraph.hasIngredients(id)) {
+                withDeps.add(id);
+            }
+        }
+        int[] starts = withDeps.toIntArray();
+        IntArrays.mergeSort(starts, (a, b) -> tiers[a] != tiers[b]
+            ? Integer.compare(tiers[a], tiers[b])
+            : Integer.compare(a, b));
+
+        int[] discovered = new int[itemCount];
+        Arrays.fill(discovered, NO_CHAIN);
+        int[] worklist = new int[itemCount];
+        IntArrayList discoveredMinTiers = new IntArrayList();
+
+        for (int start : starts) {
+            if (discovered[start] != NO_CHAIN) continue;
+
+            int chain = discoveredMinTiers.size();
+            int minTier = tiers[start];
+            int size = 0;
+            worklist[size++] = start;
+            discovered[start] = chain;
+
+            for (int next = 0; next < size; next++) {
+                int item = worklist[next];
+                minTier = Math.min(minTier, tiers[item]);
+                for (int e = recipeGraph.ingredientStart(item); e < recipeGraph.ingredientEnd(item); e++) {
+                    int dep = recipeGraph.ingredientAt(e);
+                    if (discovered[dep] == NO_CHAIN) {
+                        discovered[dep] = chain;
+                        worklist[size++] = dep;
+                    }
+                }
+                for (int e = recipeGraph.outputStart(item); e < recipeGraph.outputEnd(item); e++) {
+                    int dependent = recipeGraph.outputAt(e);
+                    if (discovered[dependent] == NO_CHAIN) {
+                        discovered[dependent] = chain;
+                        worklist[size++] = dependent;
+                    }
+                }
+            }
+            discoveredMinTiers.add(minTier);
+        }
+
+        // Order chains by minimum tier; discovery order breaks ties
+        int chainCount = discoveredMinTiers.size();
+        int[] order = new int[chainCount];
+        for (int i = 0; i < chainCount; i++) {
+            order[i] = i;
+        }
+        IntArrays.mergeSort(order, (a, b) -> Integer.compare(discoveredMinTiers.getInt(a), discoveredMinTiers.getInt(b)));
+        int[] rankOf = new int[chainCount];
+        for (int rank = 0; rank < chainCount; rank++) {
+            rankOf[order[rank]] = rank;
+        }
+
+        // Relabel items by chain rank and bucket them, ascending ids within each chain
+        int[] chainOf = new int[itemCount];
+        int[] sizes = new int[chainCount];
+        int sequentialCount = 0;
+        for (int id = 0; id < itemCount; id++) {
+            if (discovered[id] == NO_CHAIN) {
+                chainOf[id] = NO_CHAIN;
+                sequentialCount++;
+            } else {
+                chainOf[id] = rankOf[discovered[id]];
+                sizes[chainOf[id]]++;
+            }
+        }
+        int[][] members = new int[chainCount][];
+        for (int chain = 0; chain < chainCount; chain++) {
+            members[chain] = new int[sizes[chain]];
+        }
+        int[] fill = new int[chainCount];
+        for (int id = 0; id < itemCount; id++) {
+            int chain = chainOf[id];
+            if (chain != NO_CHAIN) {
+                members[chain][fill[chain]++] = id;
+            }
+        }
+
+        ProgressionModel model = new ProgressionModel(chainOf, members);
+        Tierlists.LOGGER.info("Found {} progression chains (largest {} items, {} in chains, {} sequential) in {} ms",
+            chainCount, model.getLargestChainSize(), itemCount - sequentialCount, sequentialCount,
+            System.currentTimeMillis() - start);
+        return model;
+    }
+
+    public int chainCount() {
+        return members.length;
+    }
+
+    /**
+     * Chain of an item, or NO_CHAIN for sequential items.
+     */
+    public int getChain(int item) {
+        return chainOf[item];
+    }
+
+    /**
+     * Members of a chain, ascending by dense id.
+     */
+    public int[] getMembers(int chain) {
+        return members[chain];
+    }
+
+    public int getLargestChainSize() {
+        int largest = 0;
+        for (int[] chainMembers : members) {
+            largest = Math.max(largest, chainMembers.length);
+        }
+        return largest;
+    }
+}
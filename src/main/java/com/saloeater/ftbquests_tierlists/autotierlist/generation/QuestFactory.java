@@ -29,7 +29,6 @@ import net.minecraft.world.item.TooltipFlag;
 import net.minecraftforge.registries.ForgeRegistries;
 
 import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Utility class for creating FTBQuests objects.
@@ -42,12 +41,14 @@ public class QuestFactory {
      * @param questFile The quest file
      * @param chapter The parent chapter
      * @param item The item to display
+     * @param tagEntry The item's first matching Armageddon tag entry, or null
      * @param x X coordinate
      * @param y Y coordinate
      * @return The created quest
      */
     public static Quest createItemQuest(ServerQuestFile questFile, Chapter chapter,
-                                       ItemStack item, double x, double y) {
+                                       ItemStack item, AutoTierlistConfig.TagEntry tagEntry,
+                                       double x, double y) {
         // Create quest
         long questId = questFile.newID();
         Quest quest = new Quest(questId, chapter);
@@ -59,7 +60,8 @@ public class QuestFactory {
         // Create item task (display only, not consumable)
         long taskId = questFile.newID();
         ItemTask task = new ItemTask(taskId, quest);
-        task.setStackAndCount(item, 1);
+        // Snapshot stacks are shared between chapters, so the task gets its own copy
+        task.setStackAndCount(item.copy(), 1);
         task.setConsumeItems(dev.ftb.mods.ftblibrary.config.Tristate.FALSE);
         task.onCreated();
         try {
@@ -91,17 +93,12 @@ public class QuestFactory {
             LogUtils.getLogger().error("Failed to generate subtitle for item {}: {}", item.toString(), e.getMessage());
             Minecraft.getInstance().player.displayClientMessage(Component.literal("Failed to generate subtitle for item " + item.toString() + ": " + e.getMessage()), false);
         }
-        List<AutoTierlistConfig.TagEntry> tagEntries = AutoTierlistConfig.getArmageddonTagEntries();
-        for (AutoTierlistConfig.TagEntry entry : tagEntries) {
-            for (var tagKey : entry.getTagKeys()) {
-                if (item.is(tagKey)) {
-                    var tier = Component.literal("[").withStyle(ChatFormatting.GRAY)
-                            .append(Component.literal(String.valueOf(entry.getLabel())).withStyle(ChatFormatting.getByCode(entry.getColor())))
-                            .append(Component.literal("] ").withStyle(ChatFormatting.GRAY))
-                            .append(item.getHoverName());
-                    quest.setRawTitle(Component.Serializer.toJson(tier));
-                }
-            }
+        if (tagEntry != null) {
+            var tier = Component.literal("[").withStyle(ChatFormatting.GRAY)
+                    .append(Component.literal(String.valueOf(tagEntry.getLabel())).withStyle(ChatFormatting.getByCode(tagEntry.getColor())))
+                    .append(Component.literal("] ").withStyle(ChatFormatting.GRAY))
+                    .append(item.getHoverName());
+            quest.setRawTitle(Component.Serializer.toJson(tier));
         }
 
 
@@ -1,8 +1,10 @@
 package com.saloeater.ftbquests_tierlists.autotierlist.generation;
 
 import com.saloeater.ftbquests_tierlists.Tierlists;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.TierOverrideManager;
+import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemScanner;
+import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ScanCache;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.ItemFilter;
 import dev.ftb.mods.ftbquests.client.ClientQuestFile;
 import dev.ftb.mods.ftbquests.quest.Chapter;
 import dev.ftb.mods.ftbquests.quest.ServerQuestFile;
@@ -10,6 +12,7 @@ import net.minecraft.server.MinecraftServer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Main orchestrator for generating both weapon and armor tierlists.
@@ -30,21 +33,24 @@ public class TierlistGenerator {
                 return;
             }
 
-            // Load tier overrides from config
-            TierOverrideManager overrideManager = new TierOverrideManager();
-            overrideManager.loadWeaponOverrides(AutoTierlistConfig.WEAPON_TIER_OVERRIDES.get());
-            overrideManager.loadArmorOverrides(AutoTierlistConfig.ARMOR_TIER_OVERRIDES.get());
+            // Compiled config: filter, tier overrides and tag entries are resolved once
+            GenerationSettings settings = GenerationSettings.get();
 
             // Clean up existing chapters
-            cleanupExistingChapters(questFile);
+            cleanupExistingChapters(questFile, settings);
+
+            // Scan the registry once; every generator and mode reuses this snapshot
+            boolean weaponsEnabled = settings.isWeaponTierlistEnabled();
+            boolean armorEnabled = settings.isArmorTierlistEnabled();
+            ItemScanner.ScanResult snapshot = scanItems(server, settings, weaponsEnabled, armorEnabled);
 
             // Generate weapon tierlist
-            if (AutoTierlistConfig.ENABLE_WEAPON_TIERLIST.get()) {
+            if (weaponsEnabled) {
                 try {
                     Tierlists.LOGGER.info("Generating weapon tierlist...");
-                    WeaponTierlistGenerator weaponGen = new WeaponTierlistGenerator(overrideManager);
-                    weaponGen.generate(questFile, server.overworld(), true, AutoTierlistConfig.GetWeaponChapterIcon());
-                    weaponGen.generate(questFile, server.overworld(), false, AutoTierlistConfig.GetWeaponChapterIcon());
+                    WeaponTierlistGenerator weaponGen = new WeaponTierlistGenerator(settings);
+                    weaponGen.generate(questFile, server.overworld(), snapshot, true, settings.getWeaponChapterIcon());
+                    weaponGen.generate(questFile, server.overworld(), snapshot, false, settings.getWeaponChapterIcon());
                     Tierlists.LOGGER.info("Weapon tierlist generation complete");
                 } catch (Exception e) {
                     Tierlists.LOGGER.error("Failed to generate weapon tierlist", e);
@@ -54,12 +60,12 @@ public class TierlistGenerator {
             }
 
             // Generate armor tierlist
-            if (AutoTierlistConfig.ENABLE_ARMOR_TIERLIST.get()) {
+            if (armorEnabled) {
                 try {
                     Tierlists.LOGGER.info("Generating armor tierlist...");
-                    ArmorTierlistGenerator armorGen = new ArmorTierlistGenerator(overrideManager);
-                    armorGen.generate(questFile, server.overworld(), true, AutoTierlistConfig.GetArmorChapterIcon());
-                    armorGen.generate(questFile, server.overworld(), false, AutoTierlistConfig.GetArmorChapterIcon());
+                    ArmorTierlistGenerator armorGen = new ArmorTierlistGenerator(settings);
+                    armorGen.generate(questFile, server.overworld(), snapshot, true, settings.getArmorChapterIcon());
+                    armorGen.generate(questFile, server.overworld(), snapshot, false, settings.getArmorChapterIcon());
                     Tierlists.LOGGER.info("Armor tierlist generation complete");
                 } catch (Exception e) {
                     Tierlists.LOGGER.error("Failed to generate armor tierlist", e);
@@ -89,14 +95,43 @@ public class TierlistGenerator {
         }
     }
 
+    /**
+     * Run a single registry scan that feeds both the weapon and armor collectors.
+     * Reuses the on-disk scan cache when its fingerprint still matches.
+     */
+    private ItemScanner.ScanResult scanItems(MinecraftServer server, GenerationSettings settings,
+                                             boolean collectWeapons, boolean collectArmor) {
+        ScanCache cache = null;
+        String fingerprint = null;
+        if (settings.useScanCache()) {
+            cache = ScanCache.forServer(server);
+            fingerprint = ScanCache.fingerprint(server, settings, collectWeapons, collectArmor);
+            Optional<ItemScanner.ScanResult> cached = cache.load(fingerprint);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        ItemFilter filter = settings.getItemFilter();
+        Tierlists.LOGGER.info("Item filter configured: {}", filter.getStats());
+
+        ItemScanner scanner = new ItemScanner(filter, settings.getTagEntryIndex(), settings.useParallelScan());
+        ItemScanner.ScanResult result = scanner.scan(collectWeapons, collectArmor);
+
+        if (cache != null) {
+            cache.save(fingerprint, result);
+        }
+        return result;
+    }
+
     /**
      * Remove existing tierlist chapters to avoid duplicates.
      */
-    private void cleanupExistingChapters(ServerQuestFile questFile) {
+    private void cleanupExistingChapters(ServerQuestFile questFile, GenerationSettings settings) {
         List<Chapter> chaptersToRemove = new ArrayList<>();
 
-        String weaponChapterId = AutoTierlistConfig.WEAPON_CHAPTER_ID.get();
-        String armorChapterId = AutoTierlistConfig.ARMOR_CHAPTER_ID.get();
+        String weaponChapterId = settings.getWeaponChapterId();
+        String armorChapterId = settings.getArmorChapterId();
 
         // Find existing tierlist chapters
         for (Chapter chapter : questFile.getAllChapters()) {
@@ -161,7 +196,7 @@ public class TierlistGenerator {
             }
 
             // Cleanup handles its own save now
-            cleanupExistingChapters(questFile);
+            cleanupExistingChapters(questFile, GenerationSettings.get());
 
             Tierlists.LOGGER.info("=== Tierlist clear operation complete ===");
 
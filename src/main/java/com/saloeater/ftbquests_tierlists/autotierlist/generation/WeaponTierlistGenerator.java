@@ -4,8 +4,7 @@ import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemData;
 import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemScanner;
 import com.saloeater.ftbquests_tierlists.autotierlist.analysis.TierCalculator;
 import com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.ItemFilter;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.TierOverrideManager;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.resources.ResourceLocation;
@@ -19,18 +18,18 @@ import java.util.Map;
  */
 public class WeaponTierlistGenerator extends AbstractTierlistGenerator<ItemData.WeaponData> {
 
-    public WeaponTierlistGenerator(TierOverrideManager overrideManager) {
-        super(overrideManager);
+    public WeaponTierlistGenerator(GenerationSettings settings) {
+        super(settings);
     }
 
     @Override
     protected String getChapterId() {
-        return AutoTierlistConfig.WEAPON_CHAPTER_ID.get();
+        return settings.getWeaponChapterId();
     }
 
     @Override
     protected String getChapterTitle() {
-        return AutoTierlistConfig.WEAPON_CHAPTER_TITLE.get();
+        return settings.getWeaponChapterTitle();
     }
 
     @Override
@@ -39,14 +38,8 @@ public class WeaponTierlistGenerator extends AbstractTierlistGenerator<ItemData.
     }
 
     @Override
-    protected void configureFilter(ItemFilter filter) {
-        filter.loadWeaponTags(AutoTierlistConfig.WEAPON_TAGS.get());
-        filter.loadWeaponItems(AutoTierlistConfig.WEAPON_ITEMS.get());
-    }
-
-    @Override
-    protected List<ItemData.WeaponData> scanItems(ItemScanner scanner) {
-        return scanner.scanWeapons();
+    protected List<ItemData.WeaponData> selectItems(ItemScanner.ScanResult snapshot) {
+        return snapshot.weapons();
     }
 
     @Override
@@ -65,6 +58,11 @@ public class WeaponTierlistGenerator extends AbstractTierlistGenerator<ItemData.
         return item.stack();
     }
 
+    @Override
+    protected int getTagEntryIndex(ItemData.WeaponData item) {
+        return item.tagEntryIndex();
+    }
+
     @Override
     protected String getTierLabel(int tier) {
         double minDPS = tier * AutoTierlistConfig.TIER_MULTIPLIER;
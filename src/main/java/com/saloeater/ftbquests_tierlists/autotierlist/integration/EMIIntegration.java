@@ -1,7 +1,7 @@
 package com.saloeater.ftbquests_tierlists.autotierlist.integration;
 
 import com.saloeater.ftbquests_tierlists.Tierlists;
-import com.saloeater.ftbquests_tierlists.autotierlist.config.AutoTierlistConfig;
+import com.saloeater.ftbquests_tierlists.autotierlist.progression.IngredientExpansionCache;
 import com.mojang.logging.LogUtils;
 import dev.emi.emi.api.EmiApi;
 import dev.emi.emi.api.recipe.EmiRecipe;
@@ -9,8 +9,12 @@ import dev.emi.emi.api.recipe.EmiRecipeCategory;
 import dev.emi.emi.api.recipe.EmiRecipeManager;
 import dev.emi.emi.api.stack.EmiIngredient;
 import dev.emi.emi.api.stack.EmiStack;
+import dev.emi.emi.api.stack.TagEmiIngredient;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.item.ItemStack;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraftforge.registries.ForgeRegistries;
 import org.slf4j.Logger;
 
 import java.util.*;
@@ -51,58 +55,66 @@ public class EMIIntegration {
     }
 
     /**
-     * Get recipes that produce the specified items.
-     * Builds a graph of output item -> ingredient items.
+     * Get recipes for every item in one pass over all EMI recipes.
+     * Each recipe is visited once and its inputs are recorded for all of its item outputs,
+     * so the cost scales with the number of recipes rather than items times lookups.
+     * Ingredients are not filtered, so the result can back the server-lifetime recipe index.
      *
-     * @param relevantItems List of item IDs to check
+     * @param skippedCategories EMI recipe categories to ignore
+     * @param ingredientCache Shared ingredient expansions
      * @return Map of output item to set of ingredient items
      */
-    public static Map<ResourceLocation, Set<ResourceLocation>> getRecipesUsingItemAsIngredient(
-            List<ResourceLocation> relevantItems) {
+    public static Map<ResourceLocation, Set<ResourceLocation>> getAllRecipeIngredients(
+            Set<ResourceLocation> skippedCategories, IngredientExpansionCache ingredientCache) {
 
         if (!isAvailable()) {
             Tierlists.LOGGER.warn("EMI not available, cannot query recipes");
             return new HashMap<>();
         }
 
-        initialize();
-
-        Map<ResourceLocation, Set<ResourceLocation>> recipeGraph = new HashMap<>();
-        Set<ResourceLocation> relevantSet = new HashSet<>(relevantItems);
-
-        // Log skipped categories
-        List<? extends String> skippedCategories = AutoTierlistConfig.SKIPPED_EMI_CATEGORIES.get();
         if (!skippedCategories.isEmpty()) {
-            Tierlists.LOGGER.info("Skipping EMI recipe categories: {}", String.join(", ", skippedCategories));
+            Tierlists.LOGGER.info("Skipping EMI recipe categories: {}", skippedCategories);
         }
 
+        Map<ResourceLocation, Set<ResourceLocation>> recipeGraph = new HashMap<>();
+        Map<Item, ResourceLocation> itemIds = new IdentityHashMap<>();
+        List<ResourceLocation> outputs = new ArrayList<>();
+        Set<ResourceLocation> inputs = new HashSet<>();
+        int recipeCount = 0;
+
         try {
-            // For each relevant item, find recipes where it's the output
-            for (ResourceLocation itemId : relevantItems) {
-                ItemStack stack = new ItemStack(net.minecraftforge.registries.ForgeRegistries.ITEMS.getValue(itemId));
-                if (stack.isEmpty()) continue;
-
-                // Create EMI stack for this item
-                EmiStack emiStack = EmiStack.of(stack);
-
-                // Get all recipes that produce this item
-                List<EmiRecipe> recipes = recipeManager.getRecipesByOutput(emiStack);
-
-                // Extract ingredients from these recipes, skipping self-referential recipes
-                Set<ResourceLocation> ingredients = new HashSet<>();
-                for (EmiRecipe recipe : recipes) {
-                    if (!isRealRecipe(recipe)) continue;
-                    extractIngredients(recipe, itemId, relevantSet, ingredients);
+            for (EmiRecipe recipe : recipeManager.getRecipes()) {
+                if (!isRealRecipe(recipe, skippedCategories)) continue;
+
+                outputs.clear();
+                for (EmiStack output : recipe.getOutputs()) {
+                    ResourceLocation outputId = internItemId(output, itemIds);
+                    if (outputId != null) {
+                        outputs.add(outputId);
+                    }
                 }
-
-                if (!ingredients.isEmpty()) {
-                    recipeGraph.put(itemId, ingredients);
+                if (outputs.isEmpty()) continue;
+
+                inputs.clear();
+                extractIngredients(recipe, ingredientCache, inputs);
+                if (inputs.isEmpty()) continue;
+                recipeCount++;
+
+                for (ResourceLocation outputId : outputs) {
+                    Set<ResourceLocation> ingredients = recipeGraph.computeIfAbsent(outputId, k -> new HashSet<>());
+                    ingredients.addAll(inputs);
+                    // Skip self-referential recipes
+                    ingredients.remove(outputId);
+                    if (ingredients.isEmpty()) {
+                        recipeGraph.remove(outputId);
+                    }
                 }
             }
 
-            Tierlists.LOGGER.info("EMI recipe lookup found {} recipes with relevant ingredients", recipeGraph.size());
+            Tierlists.LOGGER.info("EMI recipe scan read {} recipes, found {} items with recipes",
+                recipeCount, recipeGraph.size());
         } catch (Exception e) {
-            Tierlists.LOGGER.error("Error during EMI recipe lookup", e);
+            Tierlists.LOGGER.error("Error during EMI recipe scan", e);
         }
 
         return recipeGraph;
@@ -112,15 +124,12 @@ public class EMIIntegration {
      * Check if a recipe should be included in crafting chain detection.
      * Returns false if the recipe's category is in the skip list.
      */
-    private static boolean isRealRecipe(EmiRecipe recipe) {
+    private static boolean isRealRecipe(EmiRecipe recipe, Set<ResourceLocation> skippedCategories) {
         var category = recipe.getCategory();
-        String categoryId = category.getId().toString();
 
         // Check if this category is in the skip list
-        for (String skippedCategory : AutoTierlistConfig.SKIPPED_EMI_CATEGORIES.get()) {
-            if (categoryId.equals(skippedCategory)) {
-                return false;
-            }
+        if (skippedCategories.contains(category.getId())) {
+            return false;
         }
 
         String recipeId = "";
@@ -136,44 +145,55 @@ public class EMIIntegration {
     }
 
     /**
-     * Extract ingredients from a recipe that are in our relevant items set.
-     * Skips ingredients that match the output item (self-referential recipes).
+     * Extract the item ingredients of a recipe.
+     * Non-item stacks (fluids and the like) are skipped, since they can never be tierlisted.
+     * Item tags are expanded once per tag; they may be added as a single tag node, see IngredientExpansionCache.
      *
      * @param recipe The recipe to extract from
-     * @param outputId The output item of this recipe
-     * @param relevantItems Set of items we care about
+     * @param ingredientCache Shared ingredient expansions
      * @param ingredients Accumulator for found ingredients
      */
-    private static void extractIngredients(EmiRecipe recipe, ResourceLocation outputId,
-                                          Set<ResourceLocation> relevantItems,
+    private static void extractIngredients(EmiRecipe recipe, IngredientExpansionCache ingredientCache,
                                           Set<ResourceLocation> ingredients) {
         try {
-            // Get all input ingredients
             for (EmiIngredient ingredient : recipe.getInputs()) {
                 if (ingredient.isEmpty()) continue;
 
-                // Each ingredient can represent multiple possible items (tags, etc.)
-                for (EmiStack stack : ingredient.getEmiStacks()) {
-                    if (stack.isEmpty()) continue;
-
-                    // Get the item ID (Identifier in fabric, ResourceLocation in forge)
-                    ResourceLocation ingredientId = new ResourceLocation(
-                        stack.getId().getNamespace(),
-                        stack.getId().getPath()
-                    );
-
-                    // Skip if ingredient is the same as output (self-referential recipe)
-                    if (ingredientId.equals(outputId)) {
-                        continue;
-                    }
-
-                    if (relevantItems.contains(ingredientId)) {
-                        ingredients.add(ingredientId);
-                    }
-                }
+                // Self-references are removed by the caller, which knows every output of the recipe
+                ingredientCache.collect(expand(ingredient, ingredientCache), null, ingredients);
             }
         } catch (Exception e) {
             Tierlists.LOGGER.debug("Error extracting ingredients from recipe: {}", e.getMessage());
         }
     }
+
+    @SuppressWarnings("unchecked")
+    private static IngredientExpansionCache.Expansion expand(EmiIngredient ingredient,
+                                                            IngredientExpansionCache ingredientCache) {
+        if (ingredient instanceof TagEmiIngredient tag && tag.key.registry().equals(Registries.ITEM)) {
+            return ingredientCache.expandTag((TagKey<Item>) tag.key);
+        }
+        // EMI ingredients implement equals, so equal ingredients from different recipes share an entry
+        return ingredientCache.expand(ingredient, () -> {
+            BitSet items = new BitSet();
+            // Each ingredient can represent multiple possible items (tags, etc.)
+            for (EmiStack stack : ingredient.getEmiStacks()) {
+                if (!stack.isEmpty() && stack.getKey() instanceof Item item) {
+                    items.set(IngredientExpansionCache.getRawId(item));
+                }
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Registry id of an item stack, or null for empty and non-item stacks.
+     * Ids are cached per item, so every occurrence of an item maps to the same ResourceLocation instance.
+     */
+    private static ResourceLocation internItemId(EmiStack stack, Map<Item, ResourceLocation> itemIds) {
+        if (stack.isEmpty() || !(stack.getKey() instanceof Item item)) {
+            return null;
+        }
+        return itemIds.computeIfAbsent(item, ForgeRegistries.ITEMS::getKey);
+    }
 }
@@ -7,7 +7,7 @@ import org.spongepowered.asm.mixin.gen.Accessor;
 
 /**
  * Accessor mixin to expose SmithingTransformRecipe's private fields.
- * Used by JEI integration to extract ingredients for crafting chain detection.
+ * Used by ServerRecipeExtractor to extract ingredients for crafting chain detection.
  */
 @Mixin(SmithingTransformRecipe.class)
 public interface SmithingTransformRecipeAccessor {
@@ -1,279 +1,91 @@
 package com.saloeater.ftbquests_tierlists.autotierlist.progression;
 
 import com.saloeater.ftbquests_tierlists.Tierlists;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings;
 import com.saloeater.ftbquests_tierlists.autotierlist.integration.EMIIntegration;
-import com.saloeater.ftbquests_tierlists.autotierlist.mixin.SmithingTransformRecipeAccessor;
 import com.mojang.logging.LogUtils;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.item.crafting.Ingredient;
-import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.item.crafting.RecipeManager;
-import net.minecraft.world.item.crafting.RecipeType;
-import net.minecraftforge.registries.ForgeRegistries;
 import org.slf4j.Logger;
 
 import java.util.*;
 
 /**
- * Detects crafting relationships between items and assigns them to columns
- * for progression-aligned quest layouts.
+ * Detects crafting relationships between items for progression-aligned quest layouts.
  *
- * Uses JEI (Just Enough Items) when available to get comprehensive recipe information
- * across all recipe types. Falls back to vanilla RecipeManager if JEI is not present.
+ * Uses EMI when available to get comprehensive recipe information across all recipe types.
+ * Falls back to walking every recipe type in the server's RecipeManager if EMI is not present.
  */
 public class CraftingChainDetector {
     private final RecipeManager recipeManager;
+    private final GenerationSettings settings;
 
-    public CraftingChainDetector(RecipeManager recipeManager) {
+    public CraftingChainDetector(RecipeManager recipeManager, GenerationSettings settings) {
         this.recipeManager = recipeManager;
+        this.settings = settings;
     }
 
     /**
      * Get the recipe graph for external use (quest dependency creation).
+     * Reads a view of the server-lifetime RecipeIndex, so recipes are only walked once per reload.
+     * Items are linked through non-tierlisted intermediates up to the configured recipe hop limit.
      *
      * @param items List of item IDs to analyze
      * @return Map of output item to set of ingredient items
      */
     public Map<ResourceLocation, Set<ResourceLocation>> getRecipeGraph(List<ResourceLocation> items) {
-        return buildRecipeGraph(items);
+        return RecipeIndex.get(recipeManager, settings).viewFor(items, settings.getRecipeHopLimit());
     }
 
     /**
-     * Assign column numbers to items based on their crafting relationships.
-     * Items that share crafting relationships (direct or via shared ingredients)
-     * will be placed in the same column.
-     *
-     * @param items List of item IDs to analyze
-     * @return Map of item ID to column number
-     */
-    public Map<ResourceLocation, Integer> assignColumns(List<ResourceLocation> items) {
-        // Build recipe graph
-        Map<ResourceLocation, Set<ResourceLocation>> recipeGraph = buildRecipeGraph(items);
-
-        // Use Union-Find to group items with crafting relationships
-        UnionFind uf = new UnionFind(items);
-
-        // Connect items with direct crafting relationships
-        for (ResourceLocation output : recipeGraph.keySet()) {
-            Set<ResourceLocation> ingredients = recipeGraph.get(output);
-            for (ResourceLocation ingredient : ingredients) {
-                if (items.contains(ingredient)) {
-                    uf.union(output, ingredient);
-                }
-            }
-        }
-
-        // Connect items with shared ingredients
-        for (ResourceLocation item1 : items) {
-            Set<ResourceLocation> ingredients1 = recipeGraph.getOrDefault(item1, Collections.emptySet());
-            if (ingredients1.isEmpty()) continue;
-
-            for (ResourceLocation item2 : items) {
-                if (item1.equals(item2)) continue;
-
-                Set<ResourceLocation> ingredients2 = recipeGraph.getOrDefault(item2, Collections.emptySet());
-                if (!ingredients2.isEmpty() && !Collections.disjoint(ingredients1, ingredients2)) {
-                    uf.union(item1, item2);
-                }
-            }
-        }
-
-        // Get groups and assign column numbers
-        List<Set<ResourceLocation>> groups = uf.getGroups();
-        Map<ResourceLocation, Integer> columnAssignments = new HashMap<>();
-
-        for (int column = 0; column < groups.size(); column++) {
-            for (ResourceLocation item : groups.get(column)) {
-                columnAssignments.put(item, column);
-            }
-        }
-
-        Tierlists.LOGGER.info("Detected {} progression columns from {} items", groups.size(), items.size());
-        return columnAssignments;
-    }
-
-    /**
-     * Build a graph of crafting relationships: item -> ingredients.
+     * Build a graph of crafting relationships: item -> ingredients, for every registered item.
+     * Called by RecipeIndex; generators read a filtered view of the index instead.
      *
      * Uses EMI when available to get recipes from all sources (including modded recipe types).
-     * Falls back to vanilla RecipeManager for crafting and smithing recipes only if EMI is not available.
+     * Otherwise reads every recipe type straight from the server's RecipeManager.
      *
-     * @param relevantItems Only track relationships for these items
-     * @return Map of output item to set of ingredient items
+     * @param useEmi Whether EMI is available
+     * @param ingredientCache Ingredient expansions shared by the recipe sources
+     * @return Map of output item to set of ingredient items (and tag nodes, if enabled)
      */
-    private Map<ResourceLocation, Set<ResourceLocation>> buildRecipeGraph(List<ResourceLocation> relevantItems) {
+    Map<ResourceLocation, Set<ResourceLocation>> buildFullRecipeGraph(boolean useEmi,
+                                                                     IngredientExpansionCache ingredientCache) {
         // Try EMI first for comprehensive recipe coverage
-        if (EMIIntegration.isAvailable()) {
+        if (useEmi) {
             Tierlists.LOGGER.info("Using EMI for recipe graph (all recipe types)");
-            return buildRecipeGraphWithEMI(relevantItems);
+            return buildRecipeGraphWithEMI(ingredientCache);
         }
 
-        // Fallback to vanilla RecipeManager (crafting and smithing recipes only)
-        Tierlists.LOGGER.info("Using vanilla RecipeManager for recipe graph (crafting and smithing recipes only)");
-        return buildRecipeGraphVanilla(relevantItems);
+        Tierlists.LOGGER.info("Using server RecipeManager for recipe graph (all recipe types)");
+        return buildRecipeGraphServer(ingredientCache);
     }
 
     /**
      * Build recipe graph using EMI's comprehensive recipe system.
      * This includes all recipe types: crafting, smelting, smithing, modded recipes, etc.
      */
-    private Map<ResourceLocation, Set<ResourceLocation>> buildRecipeGraphWithEMI(List<ResourceLocation> relevantItems) {
+    private Map<ResourceLocation, Set<ResourceLocation>> buildRecipeGraphWithEMI(IngredientExpansionCache ingredientCache) {
         try {
-            Map<ResourceLocation, Set<ResourceLocation>> graph = EMIIntegration.getRecipesUsingItemAsIngredient(relevantItems);
+            Map<ResourceLocation, Set<ResourceLocation>> graph = EMIIntegration.getAllRecipeIngredients(
+                settings.getSkippedEmiCategories(), ingredientCache);
             Tierlists.LOGGER.info("Built EMI recipe graph with {} entries", graph.size());
             return graph;
         } catch (Exception e) {
-            Tierlists.LOGGER.error("Error building EMI recipe graph, falling back to vanilla", e);
-            return buildRecipeGraphVanilla(relevantItems);
+            Tierlists.LOGGER.error("Error building EMI recipe graph, falling back to server recipes", e);
+            return buildRecipeGraphServer(ingredientCache);
         }
     }
 
     /**
-     * Build recipe graph using vanilla RecipeManager.
-     * Includes crafting and smithing recipes.
+     * Build recipe graph from every recipe type loaded on the server.
+     * Works without EMI, so dedicated servers get modded recipe types too.
      */
-    private Map<ResourceLocation, Set<ResourceLocation>> buildRecipeGraphVanilla(List<ResourceLocation> relevantItems) {
-        Map<ResourceLocation, Set<ResourceLocation>> graph = new HashMap<>();
-        Set<ResourceLocation> relevantSet = new HashSet<>(relevantItems);
-
+    private Map<ResourceLocation, Set<ResourceLocation>> buildRecipeGraphServer(IngredientExpansionCache ingredientCache) {
         try {
-            // Iterate through all crafting recipes
-            for (Recipe<?> recipe : recipeManager.getAllRecipesFor(RecipeType.CRAFTING)) {
-                processRecipe(recipe, relevantSet, graph);
-            }
-
-            // Iterate through all smithing recipes
-            for (Recipe<?> recipe : recipeManager.getAllRecipesFor(RecipeType.SMITHING)) {
-                processRecipe(recipe, relevantSet, graph);
-            }
+            return new ServerRecipeExtractor(recipeManager, ingredientCache, settings.useParallelScan()).extract();
         } catch (Exception e) {
-            Tierlists.LOGGER.error("Error building vanilla recipe graph", e);
-        }
-
-        Tierlists.LOGGER.info("Built vanilla recipe graph with {} entries", graph.size());
-        return graph;
-    }
-
-    /**
-     * Process a single recipe and add to graph.
-     */
-    private void processRecipe(Recipe<?> recipe, Set<ResourceLocation> relevantSet,
-                               Map<ResourceLocation, Set<ResourceLocation>> graph) {
-        try {
-            ResourceLocation outputId = ForgeRegistries.ITEMS.getKey(
-                recipe.getResultItem(null).getItem()
-            );
-
-            // Only track if output is in our relevant items
-            if (outputId == null || !relevantSet.contains(outputId)) {
-                return;
-            }
-
-            // Extract all ingredients, skipping self-referential recipes
-            Set<ResourceLocation> ingredients = new HashSet<>();
-
-            // Special handling for SmithingTransformRecipe
-            if (recipe instanceof net.minecraft.world.item.crafting.SmithingTransformRecipe smithingRecipe) {
-                var accessor = (SmithingTransformRecipeAccessor) smithingRecipe;
-                extractIngredient(accessor.getTemplate(), outputId, ingredients);
-                extractIngredient(accessor.getBase(), outputId, ingredients);
-                extractIngredient(accessor.getAddition(), outputId, ingredients);
-            } else {
-                // Standard recipe handling
-                for (Ingredient ingredient : recipe.getIngredients()) {
-                    extractIngredient(ingredient, outputId, ingredients);
-                }
-            }
-
-            if (!ingredients.isEmpty()) {
-                graph.put(outputId, ingredients);
-            }
-
-        } catch (Exception e) {
-            Tierlists.LOGGER.debug("Error processing recipe {}: {}", recipe.getId(), e.getMessage());
-        }
-    }
-
-    /**
-     * Extract items from a single ingredient.
-     * Skips ingredients that match the output item (self-referential recipes).
-     *
-     * @param ingredient The ingredient to extract from
-     * @param outputId The output item of this recipe
-     * @param ingredients Accumulator for found ingredients
-     */
-    private void extractIngredient(Ingredient ingredient, ResourceLocation outputId, Set<ResourceLocation> ingredients) {
-        if (ingredient.isEmpty()) return;
-
-        for (var stack : ingredient.getItems()) {
-            ResourceLocation ingredientId = ForgeRegistries.ITEMS.getKey(stack.getItem());
-            if (ingredientId != null && !ingredientId.equals(outputId)) {
-                ingredients.add(ingredientId);
-            }
-        }
-    }
-
-    /**
-     * Union-Find data structure for grouping items with relationships.
-     */
-    public static class UnionFind {
-        private final Map<ResourceLocation, ResourceLocation> parent = new HashMap<>();
-        private final Map<ResourceLocation, Integer> rank = new HashMap<>();
-
-        public UnionFind(List<ResourceLocation> items) {
-            for (ResourceLocation item : items) {
-                parent.put(item, item);
-                rank.put(item, 0);
-            }
-        }
-
-        /**
-         * Find the root of an item's set (with path compression).
-         */
-        public ResourceLocation find(ResourceLocation item) {
-            if (!parent.get(item).equals(item)) {
-                parent.put(item, find(parent.get(item))); // Path compression
-            }
-            return parent.get(item);
-        }
-
-        /**
-         * Union two items' sets (by rank).
-         */
-        public void union(ResourceLocation item1, ResourceLocation item2) {
-            ResourceLocation root1 = find(item1);
-            ResourceLocation root2 = find(item2);
-
-            if (root1.equals(root2)) {
-                return; // Already in same set
-            }
-
-            // Union by rank
-            int rank1 = rank.get(root1);
-            int rank2 = rank.get(root2);
-
-            if (rank1 < rank2) {
-                parent.put(root1, root2);
-            } else if (rank1 > rank2) {
-                parent.put(root2, root1);
-            } else {
-                parent.put(root2, root1);
-                rank.put(root1, rank1 + 1);
-            }
-        }
-
-        /**
-         * Get all groups (sets of items with relationships).
-         */
-        public List<Set<ResourceLocation>> getGroups() {
-            Map<ResourceLocation, Set<ResourceLocation>> groupMap = new HashMap<>();
-
-            for (ResourceLocation item : parent.keySet()) {
-                ResourceLocation root = find(item);
-                groupMap.computeIfAbsent(root, k -> new HashSet<>()).add(item);
-            }
-
-            return new ArrayList<>(groupMap.values());
+            Tierlists.LOGGER.error("Error building server recipe graph", e);
+            return new HashMap<>();
         }
     }
 }
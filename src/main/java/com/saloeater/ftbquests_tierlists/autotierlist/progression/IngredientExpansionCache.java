@@ -0,0 +1,158 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.progression;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.saloeater.ftbquests_tierlists.Tierlists;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Expansions of recipe ingredients into items, stored as bitsets over registry item ids.
+ * Tag ingredients are resolved once per tag, other ingredients once per instance
+ * (Ingredient does not override equals, so that is identity), instead of once per recipe slot.
+ * Shared by the recipe extractors while the recipe index is built; safe to use from worker threads.
+ *
+ * With tag nodes enabled, a tag with several members is added to the graph as a single node
+ * instead of one edge per member. RecipeIndex resolves those nodes against the tierlisted items.
+ */
+public class IngredientExpansionCache {
+    private final boolean tagNodes;
+    private final Map<Object, Expansion> byIngredient = new ConcurrentHashMap<>();
+    private final Map<TagKey<Item>, Expansion> byTag = new ConcurrentHashMap<>();
+    private final Map<ResourceLocation, BitSet> tagNodeMembers = new ConcurrentHashMap<>();
+
+    /**
+     * Items matched by an ingredient.
+     *
+     * @param tagNode Graph node standing in for the whole tag, or null to add every item
+     * @param items Registry ids of the matched items
+     */
+    public record Expansion(ResourceLocation tagNode, BitSet items) {
+    }
+
+    public IngredientExpansionCache(boolean tagNodes) {
+        this.tagNodes = tagNodes;
+    }
+
+    /**
+     * Expand a vanilla or Forge ingredient.
+     */
+    public Expansion expand(Ingredient ingredient) {
+        return byIngredient.computeIfAbsent(ingredient, key -> {
+            TagKey<Item> tag = getSingleTag(ingredient);
+            if (tag != null) {
+                return expandTag(tag);
+            }
+            BitSet items = new BitSet();
+            for (ItemStack stack : ingredient.getItems()) {
+                if (!stack.isEmpty()) {
+                    items.set(getRawId(stack.getItem()));
+                }
+            }
+            return new Expansion(null, items);
+        });
+    }
+
+    /**
+     * Expand an ingredient from another recipe source, keyed by the given object.
+     *
+     * @param key Cache key; must implement equals for sharing across equal ingredients
+     * @param items Computes the registry ids of the matched items on first use
+     */
+    public Expansion expand(Object key, Supplier<BitSet> items) {
+        return byIngredient.computeIfAbsent(key, k -> new Expansion(null, items.get()));
+    }
+
+    /**
+     * Expand an item tag.
+     */
+    public Expansion expandTag(TagKey<Item> tag) {
+        return byTag.computeIfAbsent(tag, key -> {
+            BitSet items = new BitSet();
+            for (Holder<Item> holder : BuiltInRegistries.ITEM.getTagOrEmpty(key)) {
+                items.set(getRawId(holder.value()));
+            }
+            if (!tagNodes || items.cardinality() < 2) {
+                return new Expansion(null, items);
+            }
+            ResourceLocation node = tagNodeId(key);
+            tagNodeMembers.put(node, items);
+            return new Expansion(node, items);
+        });
+    }
+
+    /**
+     * Add an expanded ingredient to a recipe's ingredient set, skipping the output item itself.
+     */
+    public void collect(Expansion expansion, ResourceLocation outputId, Set<ResourceLocation> ingredients) {
+        if (expansion.tagNode() != null) {
+            ingredients.add(expansion.tagNode());
+            return;
+        }
+        BitSet items = expansion.items();
+        for (int id = items.nextSetBit(0); id >= 0; id = items.nextSetBit(id + 1)) {
+            ResourceLocation ingredientId = getItemId(id);
+            if (!ingredientId.equals(outputId)) {
+                ingredients.add(ingredientId);
+            }
+        }
+    }
+
+    /**
+     * Tag nodes added to the graph so far, with the registry ids of their members.
+     */
+    public Map<ResourceLocation, BitSet> getTagNodes() {
+        return Collections.unmodifiableMap(tagNodeMembers);
+    }
+
+    public int size() {
+        return byIngredient.size();
+    }
+
+    public static int getRawId(Item item) {
+        return BuiltInRegistries.ITEM.getId(item);
+    }
+
+    public static ResourceLocation getItemId(int rawId) {
+        return BuiltInRegistries.ITEM.getKey(BuiltInRegistries.ITEM.byId(rawId));
+    }
+
+    /**
+     * Id of the graph node for a tag, kept in this mod's namespace so it never matches a real item.
+     */
+    private static ResourceLocation tagNodeId(TagKey<Item> tag) {
+        ResourceLocation location = tag.location();
+        return new ResourceLocation(Tierlists.MODID, "tag/" + location.getNamespace() + "/" + location.getPath());
+    }
+
+    /**
+     * The tag of an ingredient that matches exactly one item tag, or null for any other ingredient.
+     */
+    private static TagKey<Item> getSingleTag(Ingredient ingredient) {
+        try {
+            JsonElement json = ingredient.toJson();
+            if (json.isJsonObject()) {
+                JsonObject object = json.getAsJsonObject();
+                if (object.size() == 1 && object.has("tag")) {
+                    return TagKey.create(Registries.ITEM, new ResourceLocation(object.get("tag").getAsString()));
+                }
+            }
+        } catch (Exception e) {
+            // Custom ingredients may not serialize; expand them item by item
+        }
+        return null;
+    }
+}
@@ -0,0 +1,191 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.progression;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+/**
+ * Topological order over dense item ids that is kept up to date as edges are added
+ * (Pearce-Kelly dynamic topological sort). Adding an edge that respects the current order is O(1);
+ * otherwise only the nodes positioned between its two ends are searched and reordered,
+ * instead of the whole graph. Edges that would close a cycle are rejected.
+ *
+ * An edge before -> after means before has to come first, e.g. ingredient -> output.
+ */
+public class OnlineTopologicalOrder {
+    private final IntArrayList[] successors;
+    private final IntArrayList[] predecessors;
+    private final int[] positionOf;
+
+    // Search state, reused across insertions: a node is visited when its mark equals the current stamp
+    private final int[] visitMark;
+    private int stamp;
+    private final IntArrayList stack = new IntArrayList();
+    private final IntArrayList forward = new IntArrayList();
+    private final IntArrayList backward = new IntArrayList();
+
+    private int edgeCount;
+
+    public OnlineTopologicalOrder(int nodeCount) {
+        successors = new IntArrayList[nodeCount];
+        predecessors = new IntArrayList[nodeCount];
+        positionOf = new int[nodeCount];
+        visitMark = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            positionOf[node] = node;
+        }
+    }
+
+    /**
+     * Start from the given order instead of id order. Only valid before any edge is added.
+     * A good seed (e.g. one consistent with most of the edges to come) makes later insertions free.
+     *
+     * @param nodesInOrder Every node exactly once
+     */
+    public void seed(int[] nodesInOrder) {
+        if (edgeCount > 0) {
+            throw new IllegalStateException("Order can only be seeded before edges are added");
+        }
+        for (int position = 0; position < nodesInOrder.length; position++) {
+            positionOf[nodesInOrder[position]] = position;
+        }
+    }
+
+    /**
+     * Add an edge unless it would create a cycle.
+     *
+     * @return true if the edge was added (or already existed), false if it would close a cycle
+     */
+    public boolean addEdge(int before, int after) {
+        if (before == after) {
+            return false;
+        }
+        if (successors[before] != null && successors[before].contains(after)) {
+            return true;
+        }
+
+        int lowerBound = positionOf[after];
+        int upperBound = positionOf[before];
+        if (lowerBound < upperBound) {
+            // Order is violated: find what has to move, failing if 'after' already reaches 'before'
+            if (!searchForward(after, upperBound, before)) {
+                return false;
+            }
+            searchBackward(before, lowerBound);
+            reorder();
+        }
+
+        link(before, after);
+        return true;
+    }
+
+    /**
+     * Whether 'before' is placed ahead of 'after' in the current order.
+     */
+    public boolean isBefore(int before, int after) {
+        return positionOf[before] < positionOf[after];
+    }
+
+    public int getPosition(int node) {
+        return positionOf[node];
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    private void link(int before, int after) {
+        if (successors[before] == null) {
+            successors[before] = new IntArrayList(2);
+        }
+        if (predecessors[after] == null) {
+            predecessors[after] = new IntArrayList(2);
+        }
+        successors[before].add(after);
+        predecessors[after].add(before);
+        edgeCount++;
+    }
+
+    /**
+     * Collect nodes reachable from start that sit before upperBound.
+     * Returns false if target is reached, i.e. the new edge would close a cycle.
+     */
+    private boolean searchForward(int start, int upperBound, int target) {
+        stamp++;
+        forward.clear();
+        stack.clear();
+        stack.add(start);
+        visitMark[start] = stamp;
+        while (!stack.isEmpty()) {
+            int node = stack.popInt();
+            forward.add(node);
+            IntArrayList next = successors[node];
+            if (next == null) {
+                continue;
+            }
+            for (int i = 0; i < next.size(); i++) {
+                int successor = next.getInt(i);
+                if (successor == target) {
+                    return false;
+                }
+                if (visitMark[successor] != stamp && positionOf[successor] < upperBound) {
+                    visitMark[successor] = stamp;
+                    stack.add(successor);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collect nodes that reach start and sit after lowerBound.
+     */
+    private void searchBackward(int start, int lowerBound) {
+        stamp++;
+        backward.clear();
+        stack.clear();
+        stack.add(start);
+        visitMark[start] = stamp;
+        while (!stack.isEmpty()) {
+            int node = stack.popInt();
+            backward.add(node);
+            IntArrayList previous = predecessors[node];
+            if (previous == null) {
+                continue;
+            }
+            for (int i = 0; i < previous.size(); i++) {
+                int predecessor = previous.getInt(i);
+                if (visitMark[predecessor] != stamp && positionOf[predecessor] > lowerBound) {
+                    visitMark[predecessor] = stamp;
+                    stack.add(predecessor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the backward set ahead of the forward set, reusing only the positions they already hold.
+     */
+    private void reorder() {
+        int[] backwardNodes = backward.toIntArray();
+        int[] forwardNodes = forward.toIntArray();
+        IntArrays.quickSort(backwardNodes, (a, b) -> Integer.compare(positionOf[a], positionOf[b]));
+        IntArrays.quickSort(forwardNodes, (a, b) -> Integer.compare(positionOf[a], positionOf[b]));
+
+        int[] positions = new int[backwardNodes.length + forwardNodes.length];
+        for (int i = 0; i < backwardNodes.length; i++) {
+            positions[i] = positionOf[backwardNodes[i]];
+        }
+        for (int i = 0; i < forwardNodes.length; i++) {
+            positions[backwardNodes.length + i] = positionOf[forwardNodes[i]];
+        }
+        IntArrays.quickSort(positions);
+
+        int next = 0;
+        for (int node : backwardNodes) {
+            positionOf[node] = positions[next++];
+        }
+        for (int node : forwardNodes) {
+            positionOf[node] = positions[next++];
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.progression;
+
+import com.saloeater.ftbquests_tierlists.autotierlist.analysis.ItemIdDictionary;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recipe relationships between tierlisted items, stored as compressed sparse rows over dense item ids.
+ * The forward index lists each output's ingredients, the reverse index lists each ingredient's outputs.
+ * Built once per generation and shared by grouping, layout, depth calculation and quest dependencies.
+ *
+ * Rows are sorted, so iteration order is deterministic. Typical traversal:
+ * <pre>
+ * for (int e = graph.ingredientStart(item); e &lt; graph.ingredientEnd(item); e++) {
+ *     int ingredient = graph.ingredientAt(e);
+ * }
+ * </pre>
+ */
+public class RecipeGraph {
+    private final int nodeCount;
+    private final int[] ingredientOffsets;
+    private final int[] ingredients;
+    private final int[] outputOffsets;
+    private final int[] outputs;
+
+    private RecipeGraph(int nodeCount, int[] ingredientOffsets, int[] ingredients) {
+        this.nodeCount = nodeCount;
+        this.ingredientOffsets = ingredientOffsets;
+        this.ingredients = ingredients;
+
+        // Reverse index: count outputs per ingredient, then fill in ascending output order
+        int[] offsets = new int[nodeCount + 1];
+        for (int ingredient : ingredients) {
+            offsets[ingredient + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] reverse = new int[ingredients.length];
+        int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        for (int output = 0; output < nodeCount; output++) {
+            for (int e = ingredientOffsets[output]; e < ingredientOffsets[output + 1]; e++) {
+                reverse[cursor[ingredients[e]]++] = output;
+            }
+        }
+        this.outputOffsets = offsets;
+        this.outputs = reverse;
+    }
+
+    /**
+     * Build the graph from output -> ingredients relations keyed by item id.
+     * Relations touching items outside the dictionary are dropped, since no stage can place them.
+     *
+     * @param dictionary Dense ids of the tierlisted items
+     * @param relations Output item -> ingredient items
+     * @return Graph over the dictionary's dense ids
+     */
+    public static RecipeGraph build(ItemIdDictionary dictionary, Map<ResourceLocation, Set<ResourceLocation>> relations) {
+        int nodeCount = dictionary.size();
+        int[][] rows = new int[nodeCount][];
+        int edgeCount = 0;
+
+        IntOpenHashSet row = new IntOpenHashSet();
+        for (Map.Entry<ResourceLocation, Set<ResourceLocation>> entry : relations.entrySet()) {
+            int output = dictionary.getId(entry.getKey());
+            if (output == ItemIdDictionary.NO_ID) {
+                continue;
+            }
+            row.clear();
+            for (ResourceLocation ingredientId : entry.getValue()) {
+                int ingredient = dictionary.getId(ingredientId);
+                if (ingredient != ItemIdDictionary.NO_ID) {
+                    row.add(ingredient);
+                }
+            }
+            int[] sorted = row.toIntArray();
+            Arrays.sort(sorted);
+            rows[output] = sorted;
+            edgeCount += sorted.length;
+        }
+
+        int[] offsets = new int[nodeCount + 1];
+        int[] ingredients = new int[edgeCount];
+        int next = 0;
+        for (int output = 0; output < nodeCount; output++) {
+            offsets[output] = next;
+            if (rows[output] != null) {
+                System.arraycopy(rows[output], 0, ingredients, next, rows[output].length);
+                next += rows[output].length;
+            }
+        }
+        offsets[nodeCount] = next;
+
+        return new RecipeGraph(nodeCount, offsets, ingredients);
+    }
+
+    /**
+     * Graph with the given number of nodes and no edges.
+     */
+    public static RecipeGraph empty(int nodeCount) {
+        return new RecipeGraph(nodeCount, new int[nodeCount + 1], new int[0]);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return ingredients.length;
+    }
+
+    public boolean isEmpty() {
+        return ingredients.length == 0;
+    }
+
+    // Forward index: output -> ingredients
+
+    public int ingredientStart(int output) {
+        return ingredientOffsets[output];
+    }
+
+    public int ingredientEnd(int output) {
+        return ingredientOffsets[output + 1];
+    }
+
+    public int ingredientAt(int edge) {
+        return ingredients[edge];
+    }
+
+    public boolean hasIngredients(int output) {
+        return ingredientOffsets[output + 1] > ingredientOffsets[output];
+    }
+
+    // Reverse index: ingredient -> outputs
+
+    public int outputStart(int ingredient) {
+        return outputOffsets[ingredient];
+    }
+
+    public int outputEnd(int ingredient) {
+        return outputOffsets[ingredient + 1];
+    }
+
+    public int outputAt(int edge) {
+        return outputs[edge];
+    }
+
+    public boolean hasOutputs(int ingredient) {
+        return outputOffsets[ingredient + 1] > outputOffsets[ingredient];
+    }
+}
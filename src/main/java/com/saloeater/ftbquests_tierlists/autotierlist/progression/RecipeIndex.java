@@ -0,0 +1,255 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.progression;
+
+import com.saloeater.ftbquests_tierlists.Tierlists;
+import com.saloeater.ftbquests_tierlists.autotierlist.config.GenerationSettings;
+import com.saloeater.ftbquests_tierlists.autotierlist.integration.EMIIntegration;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.crafting.RecipeManager;
+
+import java.util.*;
+
+/**
+ * Server-lifetime index of output -> ingredient relations for every registered item.
+ * Built on first use after the server starts and reused by every generate command;
+ * dropped when datapacks are reloaded or the server stops (see ServerEventHandler).
+ * Generators take a filtered view for their own items instead of re-querying recipes.
+ *
+ * With tag ingredient nodes enabled, relations may point at a tag node instead of the tag's items;
+ * views resolve those nodes to the relevant items that are members of the tag, and follow the
+ * other members as intermediates when the hop limit allows it.
+ */
+public class RecipeIndex {
+    private static RecipeIndex current;
+
+    // Shared empty result of a view search; never modified
+    private static final BitSet NO_ITEMS = new BitSet();
+
+    private final Map<ResourceLocation, Set<ResourceLocation>> relations;
+    private final boolean builtWithEmi;
+    private final Set<ResourceLocation> skippedEmiCategories;
+    private final boolean tagIngredientNodes;
+    private final Map<ResourceLocation, BitSet> tagNodes;
+
+    private RecipeIndex(Map<ResourceLocation, Set<ResourceLocation>> relations, boolean builtWithEmi,
+                        GenerationSettings settings, Map<ResourceLocation, BitSet> tagNodes) {
+        this.relations = relations;
+        this.builtWithEmi = builtWithEmi;
+        this.skippedEmiCategories = settings.getSkippedEmiCategories();
+        this.tagIngredientNodes = settings.useTagIngredientNodes();
+        this.tagNodes = tagNodes;
+    }
+
+    /**
+     * Get the index, building it if there is none yet or the current one no longer matches.
+     * An index is rebuilt when EMI became available after it was built, the skipped EMI categories changed,
+     * or tag ingredient nodes were toggled.
+     */
+    public static synchronized RecipeIndex get(RecipeManager recipeManager, GenerationSettings settings) {
+        boolean useEmi = EMIIntegration.isAvailable();
+        RecipeIndex index = current;
+        if (index == null
+            || index.builtWithEmi != useEmi
+            || index.tagIngredientNodes != settings.useTagIngredientNodes()
+            || (useEmi && !index.skippedEmiCategories.equals(settings.getSkippedEmiCategories()))) {
+            long start = System.currentTimeMillis();
+            IngredientExpansionCache ingredientCache = new IngredientExpansionCache(settings.useTagIngredientNodes());
+            Map<ResourceLocation, Set<ResourceLocation>> relations =
+                new CraftingChainDetector(recipeManager, settings).buildFullRecipeGraph(useEmi, ingredientCache);
+            Map<ResourceLocation, BitSet> tagNodes = Map.copyOf(ingredientCache.getTagNodes());
+            index = new RecipeIndex(Collections.unmodifiableMap(relations), useEmi, settings, tagNodes);
+            current = index;
+            Tierlists.LOGGER.info("Built recipe index with {} outputs, {} edges, {} tag nodes in {} ms",
+                relations.size(), countEdges(relations), tagNodes.size(), System.currentTimeMillis() - start);
+        }
+        return index;
+    }
+
+    /**
+     * Drop the index so the next generation rebuilds it from the current recipes.
+     */
+    public static synchronized void invalidate() {
+        if (current != null) {
+            current = null;
+            Tierlists.LOGGER.info("Recipe index invalidated");
+        }
+    }
+
+    /**
+     * Relations restricted to the given items: only their outputs, and only ingredients among them.
+     * Tag nodes are replaced by the given items that belong to the tag.
+     *
+     * With a hop limit above 1, an output is also linked to relevant items reached through up to
+     * hopLimit - 1 intermediates that are not relevant themselves (sword -> ingot -> upgraded ingot -> upgraded sword).
+     * Non-relevant members of a tag node count as intermediates too (sword -> #forge:ingots/steel -> upgraded sword).
+     * The search stops at relevant items; their own ingredients are covered by their own entries.
+     *
+     * @param relevantItems Items to keep
+     * @param hopLimit Maximum number of recipe steps between two linked items, 1 for direct ingredients only
+     * @return Map of output item to set of ingredient items
+     */
+    public Map<ResourceLocation, Set<ResourceLocation>> viewFor(Collection<ResourceLocation> relevantItems, int hopLimit) {
+        View view = new View(relevantItems, Math.max(1, hopLimit));
+        Map<ResourceLocation, Set<ResourceLocation>> result = new HashMap<>();
+        BitSet found = new BitSet();
+
+        for (Object2IntMap.Entry<ResourceLocation> entry : view.relevantIds.object2IntEntrySet()) {
+            ResourceLocation output = entry.getKey();
+            Set<ResourceLocation> ingredients = relations.get(output);
+            if (ingredients == null) {
+                continue;
+            }
+            found.clear();
+            view.collect(ingredients, view.hopLimit, found);
+            // Intermediates can lead back to the output itself
+            found.clear(entry.getIntValue());
+            if (!found.isEmpty()) {
+                Set<ResourceLocation> relevantIngredients = new HashSet<>();
+                for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+                    relevantIngredients.add(IngredientExpansionCache.getItemId(id));
+                }
+                result.put(output, relevantIngredients);
+            }
+        }
+
+        if (view.hopLimit > 1) {
+            int memoized = 0;
+            for (Map<ResourceLocation, BitSet> memo : view.reachable) {
+                memoized += memo.size();
+            }
+            Tierlists.LOGGER.info("Linked {} of {} items within {} recipe steps ({} intermediates searched)",
+                result.size(), view.relevantIds.size(), view.hopLimit, memoized);
+        }
+        return result;
+    }
+
+    /**
+     * State of one viewFor call. Relevant items are handled as raw registry ids, so every memoized
+     * result is a compact bitset that callers OR into their own, instead of a set of ids to copy.
+     * The memos are shared by all outputs: every intermediate and every tag node is searched
+     * at most once per remaining hop count.
+     */
+    private class View {
+        // Relevant item -> raw registry id
+        final Object2IntOpenHashMap<ResourceLocation> relevantIds = new Object2IntOpenHashMap<>();
+        final BitSet relevantRawIds = new BitSet();
+        final int hopLimit;
+        // reachable.get(h - 1): intermediate -> relevant items reachable within h steps
+        final List<Map<ResourceLocation, BitSet>> reachable = new ArrayList<>();
+        // reachableThroughTag.get(h - 1): tag node -> relevant items reachable within h steps through its other members
+        final List<Map<ResourceLocation, BitSet>> reachableThroughTag = new ArrayList<>();
+        // Tag node -> its relevant members
+        final Map<ResourceLocation, BitSet> relevantMembers = new HashMap<>();
+
+        View(Collection<ResourceLocation> relevantItems, int hopLimit) {
+            for (ResourceLocation itemId : relevantItems) {
+                BuiltInRegistries.ITEM.getOptional(itemId).ifPresent(item -> {
+                    int rawId = IngredientExpansionCache.getRawId(item);
+                    relevantIds.put(itemId, rawId);
+                    relevantRawIds.set(rawId);
+                });
+            }
+            this.hopLimit = hopLimit;
+            for (int h = 1; h < hopLimit; h++) {
+                reachable.add(new HashMap<>());
+                reachableThroughTag.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * Add the relevant items among the given ingredients, or reachable through them within the given steps.
+         */
+        void collect(Set<ResourceLocation> ingredients, int hops, BitSet into) {
+            for (ResourceLocation ingredient : ingredients) {
+                if (relevantIds.containsKey(ingredient)) {
+                    into.set(relevantIds.getInt(ingredient));
+                    continue;
+                }
+                BitSet members = tagNodes.get(ingredient);
+                if (members != null) {
+                    into.or(relevantMembersOf(ingredient, members));
+                    if (hops > 1) {
+                        into.or(reachableThroughTag(ingredient, members, hops - 1));
+                    }
+                } else if (hops > 1) {
+                    into.or(reachableFrom(ingredient, hops - 1));
+                }
+            }
+        }
+
+        /**
+         * Relevant items reachable from a non-relevant intermediate within the given steps.
+         * Hops shrink with every level, so cycles between intermediates (ingot, block, nugget) terminate.
+         */
+        BitSet reachableFrom(ResourceLocation intermediate, int hops) {
+            Map<ResourceLocation, BitSet> memo = reachable.get(hops - 1);
+            BitSet cached = memo.get(intermediate);
+            if (cached != null) {
+                return cached;
+            }
+
+            BitSet result = NO_ITEMS;
+            Set<ResourceLocation> ingredients = relations.get(intermediate);
+            if (ingredients != null) {
+                BitSet found = new BitSet();
+                collect(ingredients, hops, found);
+                if (!found.isEmpty()) {
+                    result = found;
+                }
+            }
+            memo.put(intermediate, result);
+            return result;
+        }
+
+        /**
+         * Relevant items reachable within the given steps through the non-relevant members of a tag node.
+         */
+        BitSet reachableThroughTag(ResourceLocation tagNode, BitSet members, int hops) {
+            Map<ResourceLocation, BitSet> memo = reachableThroughTag.get(hops - 1);
+            BitSet cached = memo.get(tagNode);
+            if (cached != null) {
+                return cached;
+            }
+
+            BitSet found = new BitSet();
+            for (int id = members.nextSetBit(0); id >= 0; id = members.nextSetBit(id + 1)) {
+                if (!relevantRawIds.get(id)) {
+                    found.or(reachableFrom(IngredientExpansionCache.getItemId(id), hops));
+                }
+            }
+            BitSet result = found.isEmpty() ? NO_ITEMS : found;
+            memo.put(tagNode, result);
+            return result;
+        }
+
+        BitSet relevantMembersOf(ResourceLocation tagNode, BitSet members) {
+            return relevantMembers.computeIfAbsent(tagNode, node -> {
+                BitSet relevant = (BitSet) members.clone();
+                relevant.and(relevantRawIds);
+                return relevant;
+            });
+        }
+    }
+
+    private static int countEdges(Map<ResourceLocation, Set<ResourceLocation>> relations) {
+        int edges = 0;
+        for (Set<ResourceLocation> ingredients : relations.values()) {
+            edges += ingredients.size();
+        }
+        return edges;
+    }
+
+    public Map<ResourceLocation, Set<ResourceLocation>> getRelations() {
+        return relations;
+    }
+
+    public boolean isBuiltWithEmi() {
+        return builtWithEmi;
+    }
+
+    public Map<ResourceLocation, BitSet> getTagNodes() {
+        return tagNodes;
+    }
+}
@@ -0,0 +1,195 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.progression;
+
+import com.saloeater.ftbquests_tierlists.Tierlists;
+import com.saloeater.ftbquests_tierlists.autotierlist.analysis.WorkerPool;
+import com.saloeater.ftbquests_tierlists.autotierlist.mixin.SmithingTransformRecipeAccessor;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.item.crafting.SmithingTransformRecipe;
+import net.minecraft.world.item.crafting.SmithingTrimRecipe;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the output -> ingredient graph from every recipe type loaded on the server.
+ * Does not need EMI, so dedicated servers also see modded machine recipes, not just crafting and smithing.
+ *
+ * With parallelScan enabled, recipe types are processed on a worker pool and share one IngredientExpansionCache;
+ * recipes that fail on a worker are retried on the calling (server) thread.
+ * Per-type results are merged in recipe type id order, so the graph does not depend on thread scheduling.
+ */
+public class ServerRecipeExtractor {
+    private final RecipeManager recipeManager;
+    private final IngredientExpansionCache ingredientCache;
+    private final boolean parallel;
+
+    public ServerRecipeExtractor(RecipeManager recipeManager, IngredientExpansionCache ingredientCache,
+                                 boolean parallel) {
+        this.recipeManager = recipeManager;
+        this.ingredientCache = ingredientCache;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Walk all loaded recipes.
+     *
+     * @return Map of output item to set of ingredient items
+     */
+    public Map<ResourceLocation, Set<ResourceLocation>> extract() {
+        // Bucket recipes by type, ordered by type id
+        Map<String, List<Recipe<?>>> recipesByType = new TreeMap<>();
+        for (Recipe<?> recipe : recipeManager.getRecipes()) {
+            recipesByType.computeIfAbsent(getTypeId(recipe.getType()), k -> new ArrayList<>()).add(recipe);
+        }
+
+        List<String> typeIds = new ArrayList<>(recipesByType.keySet());
+        List<TypeResult> perType = parallel
+            ? extractParallel(typeIds, recipesByType)
+            : typeIds.stream().map(typeId -> extractType(recipesByType.get(typeId))).toList();
+
+        Map<ResourceLocation, Set<ResourceLocation>> graph = new HashMap<>();
+        List<Recipe<?>> failed = new ArrayList<>();
+        for (int i = 0; i < typeIds.size(); i++) {
+            Map<ResourceLocation, Set<ResourceLocation>> typeGraph = perType.get(i).graph();
+            failed.addAll(perType.get(i).failed());
+            Tierlists.LOGGER.debug("Recipe type {}: {} recipes, {} outputs",
+                typeIds.get(i), recipesByType.get(typeIds.get(i)).size(), typeGraph.size());
+
+            for (Map.Entry<ResourceLocation, Set<ResourceLocation>> entry : typeGraph.entrySet()) {
+                // Several recipe types can produce the same item; keep the ingredients of all of them
+                Set<ResourceLocation> ingredients = graph.get(entry.getKey());
+                if (ingredients == null) {
+                    graph.put(entry.getKey(), entry.getValue());
+                } else {
+                    ingredients.addAll(entry.getValue());
+                }
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            int skipped = failed.size();
+            if (parallel) {
+                // Retry what a worker could not handle on the calling (server) thread
+                skipped = 0;
+                for (Recipe<?> recipe : failed) {
+                    try {
+                        processRecipe(recipe, graph);
+                    } catch (RuntimeException | LinkageError | AssertionError e) {
+                        Tierlists.LOGGER.debug("Error processing recipe {} serially: {}", recipe.getId(), e.toString());
+                        skipped++;
+                    }
+                }
+            }
+            Tierlists.LOGGER.warn("{} recipes failed during extraction ({} retried serially, {} skipped)",
+                failed.size(), parallel ? failed.size() : 0, skipped);
+        }
+
+        Tierlists.LOGGER.info("Extracted server recipe graph from {} recipe types: {} outputs, {} cached ingredients",
+            typeIds.size(), graph.size(), ingredientCache.size());
+        return graph;
+    }
+
+    /**
+     * Extract every recipe type on a worker pool, one task per type, returning results in type order.
+     */
+    private List<TypeResult> extractParallel(List<String> typeIds, Map<String, List<Recipe<?>>> recipesByType) {
+        ForkJoinPool pool = WorkerPool.create("Auto-Tierlist-Recipes-");
+        try {
+            List<Callable<TypeResult>> tasks = new ArrayList<>(typeIds.size());
+            for (String typeId : typeIds) {
+                List<Recipe<?>> recipes = recipesByType.get(typeId);
+                tasks.add(() -> extractType(recipes));
+            }
+
+            List<TypeResult> results = new ArrayList<>(typeIds.size());
+            for (Future<TypeResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (Exception e) {
+            throw new IllegalStateException("Parallel recipe extraction failed", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Extract one recipe type. Recipes that throw are collected instead of logged,
+     * so the caller can retry them on the server thread.
+     */
+    private TypeResult extractType(List<Recipe<?>> recipes) {
+        Map<ResourceLocation, Set<ResourceLocation>> graph = new HashMap<>();
+        List<Recipe<?>> failed = new ArrayList<>();
+        for (Recipe<?> recipe : recipes) {
+            try {
+                processRecipe(recipe, graph);
+            } catch (RuntimeException | LinkageError | AssertionError e) {
+                Tierlists.LOGGER.debug("Error processing recipe {}: {}", recipe.getId(), e.toString());
+                failed.add(recipe);
+            }
+        }
+        return new TypeResult(graph, failed);
+    }
+
+    /**
+     * Process a single recipe and add to graph.
+     */
+    private void processRecipe(Recipe<?> recipe, Map<ResourceLocation, Set<ResourceLocation>> graph) {
+        // Trims keep the base item, they are not a progression step
+        if (recipe instanceof SmithingTrimRecipe) {
+            return;
+        }
+
+        ItemStack result = recipe.getResultItem(null);
+        if (result == null || result.isEmpty()) {
+            return;
+        }
+        ResourceLocation outputId = ForgeRegistries.ITEMS.getKey(result.getItem());
+        if (outputId == null) {
+            return;
+        }
+
+        // Extract all ingredients, skipping self-referential recipes
+        Set<ResourceLocation> ingredients = new HashSet<>();
+
+        // SmithingTransformRecipe does not report its ingredients through getIngredients()
+        if (recipe instanceof SmithingTransformRecipe smithingRecipe) {
+            var accessor = (SmithingTransformRecipeAccessor) smithingRecipe;
+            extractIngredient(accessor.getTemplate(), outputId, ingredients);
+            extractIngredient(accessor.getBase(), outputId, ingredients);
+            extractIngredient(accessor.getAddition(), outputId, ingredients);
+        } else {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                extractIngredient(ingredient, outputId, ingredients);
+            }
+        }
+
+        if (!ingredients.isEmpty()) {
+            graph.computeIfAbsent(outputId, k -> new HashSet<>()).addAll(ingredients);
+        }
+    }
+
+    /**
+     * Add the items of a single ingredient, skipping the output item itself.
+     */
+    private void extractIngredient(Ingredient ingredient, ResourceLocation outputId, Set<ResourceLocation> ingredients) {
+        if (ingredient == null || ingredient.isEmpty()) return;
+
+        ingredientCache.collect(ingredientCache.expand(ingredient), outputId, ingredients);
+    }
+
+    private record TypeResult(Map<ResourceLocation, Set<ResourceLocation>> graph, List<Recipe<?>> failed) {}
+
+    private static String getTypeId(RecipeType<?> type) {
+        ResourceLocation id = ForgeRegistries.RECIPE_TYPES.getKey(type);
+        return id != null ? id.toString() : type.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.progression;
+
+import java.util.Arrays;
+
+/**
+ * Strongly connected components of a RecipeGraph, found with an iterative Tarjan pass.
+ * Items in the same component reach each other through recipes (A is made from B, B from A),
+ * so dependencies between them can form cycles; dependencies across components never do.
+ *
+ * Components are numbered in the order Tarjan completes them: ingredients before their outputs.
+ */
+public class StronglyConnectedComponents {
+    private final int[] componentOf;
+    private final int[] memberOffsets;
+    private final int[] members;
+
+    private StronglyConnectedComponents(int[] componentOf, int componentCount) {
+        this.componentOf = componentOf;
+
+        // Members grouped by component, ascending within each component
+        int[] offsets = new int[componentCount + 1];
+        for (int component : componentOf) {
+            offsets[component + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] grouped = new int[componentOf.length];
+        int[] cursor = Arrays.copyOf(offsets, componentCount);
+        for (int node = 0; node < componentOf.length; node++) {
+            grouped[cursor[componentOf[node]]++] = node;
+        }
+        this.memberOffsets = offsets;
+        this.members = grouped;
+    }
+
+    /**
+     * Find the components of a graph, following edges from outputs to their ingredients.
+     * Uses explicit stacks, so long recipe chains cannot overflow the call stack.
+     */
+    public static StronglyConnectedComponents of(RecipeGraph graph) {
+        int nodeCount = graph.nodeCount();
+        int[] index = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] componentOf = new int[nodeCount];
+        Arrays.fill(index, -1);
+
+        int[] tarjanStack = new int[nodeCount];
+        int tarjanTop = 0;
+        int[] callStack = new int[nodeCount];
+        int[] edgeCursor = new int[nodeCount];
+        int callTop = 0;
+
+        int nextIndex = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+
+            index[root] = lowLink[root] = nextIndex++;
+            tarjanStack[tarjanTop++] = root;
+            onStack[root] = true;
+            callStack[callTop] = root;
+            edgeCursor[callTop] = graph.ingredientStart(root);
+            callTop++;
+
+            while (callTop > 0) {
+                int node = callStack[callTop - 1];
+                int edge = edgeCursor[callTop - 1];
+
+                if (edge < graph.ingredientEnd(node)) {
+                    edgeCursor[callTop - 1]++;
+                    int next = graph.ingredientAt(edge);
+                    if (index[next] == -1) {
+                        // Descend into an unvisited ingredient
+                        index[next] = lowLink[next] = nextIndex++;
+                        tarjanStack[tarjanTop++] = next;
+                        onStack[next] = true;
+                        callStack[callTop] = next;
+                        edgeCursor[callTop] = graph.ingredientStart(next);
+                        callTop++;
+                    } else if (onStack[next]) {
+                        lowLink[node] = Math.min(lowLink[node], index[next]);
+                    }
+                    continue;
+                }
+
+                // All ingredients handled: close a component if this node is its root
+                callTop--;
+                if (lowLink[node] == index[node]) {
+                    int member;
+                    do {
+                        member = tarjanStack[--tarjanTop];
+                        onStack[member] = false;
+                        componentOf[member] = componentCount;
+                    } while (member != node);
+                    componentCount++;
+                }
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+            }
+        }
+
+        return new StronglyConnectedComponents(componentOf, componentCount);
+    }
+
+    public int componentCount() {
+        return memberOffsets.length - 1;
+    }
+
+    public int componentOf(int node) {
+        return componentOf[node];
+    }
+
+    public int componentSize(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    /**
+     * Whether a node is part of a recipe cycle (its component has more than one member).
+     */
+    public boolean isCyclic(int node) {
+        return componentSize(componentOf[node]) > 1;
+    }
+
+    /**
+     * Members of a component, ascending.
+     */
+    public int[] getMembers(int component) {
+        return Arrays.copyOfRange(members, memberOffsets[component], memberOffsets[component + 1]);
+    }
+}
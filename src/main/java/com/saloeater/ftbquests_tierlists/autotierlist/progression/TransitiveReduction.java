@@ -0,0 +1,63 @@
+package com.saloeater.ftbquests_tierlists.autotierlist.progression;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.BitSet;
+
+/**
+ * Drops dependency edges that are already implied through another dependency
+ * (A needs B and C, B needs C: A -> C is redundant). Works on an acyclic dependency graph
+ * over dense item ids, visiting items in topological order with one reachability bitset per item.
+ */
+public final class TransitiveReduction {
+    private TransitiveReduction() {
+    }
+
+    /**
+     * Remove implied edges in place.
+     *
+     * @param dependencies Direct dependencies of each item (null for none); must be acyclic
+     * @param order A topological order of the dependencies: every dependency comes before its dependent
+     * @return Number of removed edges
+     */
+    public static int reduce(IntArrayList[] dependencies, OnlineTopologicalOrder order) {
+        int nodeCount = dependencies.length;
+        int[] nodeAt = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodeAt[order.getPosition(node)] = node;
+        }
+
+        // Everything each item depends on, directly or indirectly
+        BitSet[] reachable = new BitSet[nodeCount];
+        int removed = 0;
+
+        for (int position = 0; position < nodeCount; position++) {
+            int node = nodeAt[position];
+            IntArrayList direct = dependencies[node];
+            BitSet covered = new BitSet();
+            reachable[node] = covered;
+            if (direct == null || direct.isEmpty()) {
+                continue;
+            }
+
+            // Latest dependencies first: anything implied by one of them sits earlier in the order
+            int[] candidates = direct.toIntArray();
+            IntArrays.quickSort(candidates, (a, b) -> Integer.compare(order.getPosition(b), order.getPosition(a)));
+
+            direct.clear();
+            for (int dependency : candidates) {
+                if (covered.get(dependency)) {
+                    removed++;
+                    continue;
+                }
+                direct.add(dependency);
+                covered.set(dependency);
+                covered.or(reachable[dependency]);
+            }
+            // Keep the remaining dependencies in their original id order
+            IntArrays.quickSort(direct.elements(), 0, direct.size());
+        }
+        return removed;
+    }
+}